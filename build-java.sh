@@ -11,9 +11,10 @@ mvn clean
 
 # Build JAR
 echo "Building executable JAR..."
-mvn package -DskipTests
+mvn package -Pcds -DskipTests
 
 echo "✓ JAR built: target/specify-cli-0.0.20.jar"
+echo "✓ AppCDS archive: target/specify-cli-0.0.20.jsa"
 
 # Test JAR
 echo "Testing JAR..."
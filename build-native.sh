@@ -29,11 +29,25 @@ if [[ ! -d .genreleases ]] || [[ -z "$(ls -A .genreleases 2>/dev/null)" ]]; then
     echo
 fi
 
-# 2. 构建 Native 镜像
-echo "=== 步骤 2: 构建 Native 镜像 ==="
-mvn clean package -Pnative -DskipTests
+# 2. 生成内置模板索引：<agent>-<script>=<zip 文件名>，外加 version
+echo "=== 步骤 2: 生成模板索引 ==="
+INDEX_FILE=.genreleases/templates.index
+: > "$INDEX_FILE"
+for zip in .genreleases/spec-kit-template-*.zip; do
+    name=$(basename "$zip" .zip)        # spec-kit-template-<agent>-<script>-<version>
+    rest=${name#spec-kit-template-}
+    TEMPLATE_VERSION=${rest##*-}
+    echo "${rest%-*}=$(basename "$zip")" >> "$INDEX_FILE"
+done
+echo "version=${TEMPLATE_VERSION}" >> "$INDEX_FILE"
+echo "✓ $(($(wc -l < "$INDEX_FILE") - 1)) 个模板 (${TEMPLATE_VERSION})"
+echo
+
+# 3. 构建 Native 镜像（内置模板，init 无需联网）
+echo "=== 步骤 3: 构建 Native 镜像 ==="
+mvn clean package -Pnative,embedded-templates -DskipTests
 
-# 3. 验证产物
+# 4. 验证产物
 echo
 echo "=== 构建完成 ==="
 if [[ -f target/specify ]]; then
@@ -7,7 +7,7 @@ echo "📦 Installing Specify CLI (Java)..."
 
 # 1. Install to local Maven repository
 echo "Installing to local Maven repository..."
-mvn clean install -DskipTests -Dmaven.test.skip=true
+mvn clean install -Pcds -DskipTests -Dmaven.test.skip=true
 
 # 2. Create wrapper script in ~/.local/bin
 mkdir -p ~/.local/bin
@@ -41,7 +41,19 @@ if [ -z "$JAR_PATH" ]; then
     exit 1
 fi
 
-exec java -jar "$JAR_PATH" "$@"
+# Short-lived commands run C1 only; daemon and watch stay up, so they keep the full JIT.
+# Every command uses the AppCDS archive built by -Pcds when it sits next to the JAR.
+JAVA_OPTS=()
+case "${1:-}" in
+    daemon|watch) ;;
+    *) JAVA_OPTS+=(-XX:TieredStopAtLevel=1) ;;
+esac
+CDS_ARCHIVE="${JAR_PATH%.jar}.jsa"
+if [ -f "$CDS_ARCHIVE" ]; then
+    JAVA_OPTS+=("-XX:SharedArchiveFile=$CDS_ARCHIVE" -Xlog:cds=off -Xlog:cds+dynamic=off)
+fi
+
+exec java "${JAVA_OPTS[@]}" -jar "$JAR_PATH" "$@"
 EOF
 
 chmod +x ~/.local/bin/specify-java
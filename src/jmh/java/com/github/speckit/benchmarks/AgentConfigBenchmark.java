@@ -0,0 +1,55 @@
+package com.github.speckit.benchmarks;
+
+import com.github.speckit.config.AgentConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks AgentConfig key and folder lookups and the full-registry scan used by check
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentConfigBenchmark {
+
+    private final String[] keys = {"copilot", "claude", "amp", "missing-agent"};
+    private final String[] folders = {".github/", ".claude", ".agents/", ".missing/"};
+
+    @Benchmark
+    public void getAgent(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(AgentConfig.getAgent(key));
+        }
+    }
+
+    @Benchmark
+    public void getAgentByFolder(Blackhole blackhole) {
+        for (String folder : folders) {
+            blackhole.consume(AgentConfig.getAgentByFolder(folder));
+        }
+    }
+
+    @Benchmark
+    public int scanRequiringCli() {
+        int count = 0;
+        for (AgentConfig.Agent agent : AgentConfig.getAgents().values()) {
+            if (agent.requiresCli()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.speckit.benchmarks;
+
+import com.github.speckit.commands.InitCommand;
+import com.github.speckit.utils.FileUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a full {@code specify init} against a local HTTP stand-in for the GitHub
+ * release API that serves a synthetic template zip
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InitCommandBenchmark {
+
+    private static final String ASSET_NAME = "spec-kit-template-copilot-sh-v0.0.0.zip";
+
+    @Param({"50", "500"})
+    private int fileCount;
+
+    @Param({"false", "true"})
+    private boolean stream;
+
+    private HttpServer server;
+    private Path workDir;
+    private Path projectPath;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        workDir = Files.createTempDirectory("specify-bench-init");
+        byte[] zip = Files.readAllBytes(SyntheticTemplate.createZip(workDir, ASSET_NAME, fileCount, 2048));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        byte[] release = ("{\"tag_name\":\"v0.0.0\",\"assets\":[{\"name\":\"" + ASSET_NAME + "\","
+            + "\"browser_download_url\":\"" + baseUrl + "/download/" + ASSET_NAME + "\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+        server.createContext("/repos/github/spec-kit/releases/latest", exchange -> {
+            exchange.sendResponseHeaders(200, release.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(release);
+            }
+        });
+        server.createContext("/download/", exchange -> {
+            exchange.sendResponseHeaders(200, zip.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(zip);
+            }
+        });
+        server.start();
+
+        System.setProperty("specify.github.api.url", baseUrl);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTarget() throws IOException {
+        projectPath = workDir.resolve("project");
+        FileUtils.deleteRecursively(projectPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        System.setOut(originalOut);
+        server.stop(0);
+        FileUtils.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public int init() {
+        List<String> args = new ArrayList<>(List.of(projectPath.toString(),
+            "--ai", "copilot", "--script", "sh", "--no-git", "--no-cache", "--ignore-agent-tools"));
+        if (stream) {
+            args.add("--stream");
+        }
+        int exitCode = new CommandLine(new InitCommand()).execute(args.toArray(new String[0]));
+        if (exitCode != 0) {
+            throw new IllegalStateException("init failed with exit code " + exitCode);
+        }
+        return exitCode;
+    }
+}
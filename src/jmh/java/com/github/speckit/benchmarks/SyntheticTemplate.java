@@ -0,0 +1,56 @@
+package com.github.speckit.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds release-shaped template zips for the benchmarks
+ */
+final class SyntheticTemplate {
+
+    private SyntheticTemplate() {
+    }
+
+    /**
+     * Writes a zip laid out like a spec-kit release: .specify/scripts/bash/*.sh,
+     * .specify/templates/*.md and an agent command folder, fileCount files in total
+     */
+    static Path createZip(Path dir, String name, int fileCount, int fileSize) throws IOException {
+        Files.createDirectories(dir);
+        Path zipPath = dir.resolve(name);
+        Random random = new Random(42);
+        byte[] content = new byte[fileSize];
+
+        try (OutputStream out = Files.newOutputStream(zipPath);
+             ZipOutputStream zos = new ZipOutputStream(out)) {
+            for (int i = 0; i < fileCount; i++) {
+                String entryName;
+                switch (i % 3) {
+                    case 0:
+                        entryName = ".specify/scripts/bash/script-" + i + ".sh";
+                        break;
+                    case 1:
+                        entryName = ".specify/templates/template-" + i + ".md";
+                        break;
+                    default:
+                        entryName = ".github/prompts/command-" + (i % 7) + "/prompt-" + i + ".md";
+                        break;
+                }
+                // Printable content so the deflater does realistic work
+                for (int b = 0; b < content.length; b++) {
+                    content[b] = (byte) ('a' + random.nextInt(26));
+                }
+                ZipEntry entry = new ZipEntry(entryName);
+                zos.putNextEntry(entry);
+                zos.write(content);
+                zos.closeEntry();
+            }
+        }
+        return zipPath;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.speckit.benchmarks;
+
+import com.github.speckit.services.TemplateService;
+import com.github.speckit.utils.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks TemplateService extraction for fresh and merge (--here) targets
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateExtractionBenchmark {
+
+    @Param({"50", "500"})
+    private int fileCount;
+
+    @Param({"1024", "65536"})
+    private int fileSize;
+
+    private final TemplateService templateService = new TemplateService();
+    private Path workDir;
+    private Path zipPath;
+    private Path targetPath;
+    private Path mergeTarget;
+
+    @Setup(Level.Trial)
+    public void createArchive() throws IOException {
+        workDir = Files.createTempDirectory("specify-bench-extract");
+        zipPath = SyntheticTemplate.createZip(workDir, "template.zip", fileCount, fileSize);
+        mergeTarget = workDir.resolve("merge");
+        templateService.extractArchive(zipPath, mergeTarget, false);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTarget() throws IOException {
+        targetPath = workDir.resolve("fresh");
+        FileUtils.deleteRecursively(targetPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        FileUtils.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public TemplateService.ExtractResult extractFresh() throws IOException {
+        return templateService.extractArchive(zipPath, targetPath, false);
+    }
+
+    @Benchmark
+    public TemplateService.ExtractResult extractStream() throws IOException {
+        try (var in = Files.newInputStream(zipPath)) {
+            return templateService.extractTemplate(in, targetPath, false);
+        }
+    }
+
+    @Benchmark
+    public TemplateService.ExtractResult mergeUnchanged() throws IOException {
+        return templateService.extractArchive(zipPath, mergeTarget, true);
+    }
+}
@@ -1,27 +1,35 @@
 package com.github.speckit;
 
+import com.github.speckit.commands.AgentContextCommand;
+import com.github.speckit.commands.AgentsCommand;
 import com.github.speckit.commands.CheckCommand;
+import com.github.speckit.commands.DaemonCommand;
+import com.github.speckit.commands.FeatureCommand;
 import com.github.speckit.commands.InitCommand;
+import com.github.speckit.commands.PrereqCommand;
+import com.github.speckit.commands.WatchCommand;
+import com.github.speckit.services.DaemonClient;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
+import java.util.List;
+
 /**
  * Specify CLI 主入口类
  * 使用 PicoCLI 框架构建命令行应用程序
- * 支持 init 和 check 两个子命令
+ * 支持 init、check、agent-context 等子命令，子命令按需注册，只加载本次调用用到的类
  */
 @Command(
     name = "specify",                                    // 命令名称
     mixinStandardHelpOptions = true,                     // 启用标准帮助选项 (-h, --help, -V, --version)
     version = "0.0.20 (Java)",                          // 版本信息
-    description = "GitHub Spec Kit - Spec-Driven Development Toolkit",  // 命令描述
-    subcommands = {                                      // 子命令列表
-        InitCommand.class,                               // 初始化命令
-        CheckCommand.class                               // 检查命令
-    }
+    description = "GitHub Spec Kit - Spec-Driven Development Toolkit"  // 命令描述
 )
 public class SpecifyCli implements Runnable {
 
+    // 子命令名称，按帮助信息中的显示顺序排列
+    static final List<String> SUBCOMMANDS = List.of("init", "check", "feature", "prereq", "agent-context", "watch", "agents", "daemon");
+
     // ASCII 艺术字横幅，用于显示应用程序标识
     private static final String BANNER = """
         ███████╗██████╗ ███████╗ ██████╗██╗███████╗██╗   ██╗
@@ -55,8 +63,72 @@ public class SpecifyCli implements Runnable {
      * @param args 命令行参数
      */
     public static void main(String[] args) {
+        // 常驻进程在运行时直接转发给它，跳过命令行解析和命令类加载
+        Integer forwarded = DaemonClient.forward(args);
+        if (forwarded != null) {
+            System.exit(forwarded);
+        }
+
         // 创建 CommandLine 实例并执行命令，获取退出码
-        int exitCode = new CommandLine(new SpecifyCli()).execute(args);
+        int exitCode = createCommandLine(args).execute(args);
         System.exit(exitCode);                           // 使用退出码退出程序
     }
+
+    /**
+     * 创建命令行实例，只注册本次调用需要的子命令
+     * 指定了已知子命令时只注册该子命令；仅有 -V/--version 时不注册任何子命令；
+     * 其他情况（帮助、无参数、未知命令）注册全部子命令，保证帮助和错误提示完整
+     * @param args 命令行参数
+     * @return 命令行实例
+     */
+    static CommandLine createCommandLine(String[] args) {
+        CommandLine commandLine = new CommandLine(new SpecifyCli());
+        String requested = null;
+        boolean versionOnly = args.length > 0;
+        for (String arg : args) {
+            if (!arg.startsWith("-")) {
+                requested = arg;                         // 第一个非选项参数即子命令名称
+                break;
+            }
+            versionOnly &= "-V".equals(arg) || "--version".equals(arg);
+        }
+
+        if (requested != null && SUBCOMMANDS.contains(requested)) {
+            commandLine.addSubcommand(requested, createSubcommand(requested));
+        } else if (requested != null || !versionOnly) {
+            for (String name : SUBCOMMANDS) {
+                commandLine.addSubcommand(name, createSubcommand(name));
+            }
+        }
+        return commandLine;
+    }
+
+    /**
+     * 创建子命令实例；类在对应分支第一次执行时才会被加载
+     * @param name 子命令名称
+     * @return 子命令实例
+     */
+    private static Object createSubcommand(String name) {
+        switch (name) {
+            case "init":
+                return new InitCommand();                // 初始化命令
+            case "check":
+                return new CheckCommand();               // 检查命令
+            case "feature":
+                return new FeatureCommand();             // 功能创建命令
+            case "prereq":
+                return new PrereqCommand();              // 前置条件检查命令
+            case "agent-context":
+                return new AgentContextCommand();        // 代理上下文更新命令
+            case "watch":
+                return new WatchCommand();               // 监听并同步代理上下文
+            case "agents":
+                return new AgentsCommand();              // 代理列表命令
+            case "daemon":
+                // 常驻进程为每个转发的请求重新创建命令行，命令对象不在请求之间共享
+                return new DaemonCommand(forwarded -> createCommandLine(forwarded).execute(forwarded));
+            default:
+                throw new IllegalArgumentException("Unknown subcommand: " + name);
+        }
+    }
 }
\ No newline at end of file
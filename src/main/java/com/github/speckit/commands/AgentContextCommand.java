@@ -0,0 +1,186 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.config.AgentConfig;
+import com.github.speckit.services.AgentContextService;
+import com.github.speckit.services.FeaturePaths;
+import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.Invocation;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Command(
+    name = "agent-context",
+    description = "根据当前功能的 plan.md 更新 AI 代理上下文文件（替代 update-agent-context.sh）"
+)
+public class AgentContextCommand implements Callable<Integer> {
+    
+    private static final String TEMPLATE = ".specify/templates/agent-file-template.md";
+    
+    @Parameters(
+        description = "要更新的 AI 助手（如 claude、copilot、codex）；留空则更新所有已存在的代理文件",
+        arity = "0..1"
+    )
+    private String agentKey;
+    
+    private final AgentContextService agentContextService = new AgentContextService();
+    
+    @Override
+    public Integer call() {
+        AgentConfig.Agent requested = null;
+        if (agentKey != null) {
+            requested = AgentConfig.getAgent(agentKey);
+            if (requested == null) {
+                ConsoleUtils.error("未知的 AI 助手 '" + agentKey + "'，可选：" + String.join("|", AgentConfig.getAgentKeys()));
+                return 1;
+            }
+        }
+        
+        FeaturePaths paths;
+        try {
+            paths = FeaturePaths.resolve(Invocation.workingDirectory(), Invocation.getenv(FeaturePaths.ENV_FEATURE));
+        } catch (IOException e) {
+            ConsoleUtils.error("无法确定当前功能: " + e.getMessage());
+            return 1;
+        }
+        if (!paths.getDuplicates().isEmpty()) {
+            ConsoleUtils.warning("存在多个相同前缀的规范目录: " + String.join(" ", paths.getDuplicates()));
+        }
+        
+        Path plan = paths.getImplPlan();
+        if (!Files.isRegularFile(plan)) {
+            ConsoleUtils.error("未找到 plan.md: " + plan);
+            if (paths.hasGit()) {
+                ConsoleUtils.info("请确认当前处于有对应规范目录的功能分支");
+            } else {
+                ConsoleUtils.info("请设置 " + FeaturePaths.ENV_FEATURE + " 环境变量或先创建功能");
+            }
+            return 1;
+        }
+        
+        Path repoRoot = paths.getRepoRoot();
+        Path template = repoRoot.resolve(TEMPLATE);
+        if (!Files.isRegularFile(template)) {
+            ConsoleUtils.warning("未找到模板文件 " + template + "，无法创建新的代理文件");
+        }
+        
+        // Map each context file to the agents sharing it, e.g. AGENTS.md for codex/opencode/amp/q
+        Map<Path, String> targets = new LinkedHashMap<>();
+        if (requested != null) {
+            targets.put(repoRoot.resolve(requested.getContextFile()), requested.getName());
+        } else {
+            targets.putAll(existingContextFiles(repoRoot));
+            if (targets.isEmpty()) {
+                ConsoleUtils.info("未找到现有代理文件，创建默认 Claude 文件...");
+                AgentConfig.Agent claude = AgentConfig.getAgent("claude");
+                targets.put(repoRoot.resolve(claude.getContextFile()), claude.getName());
+            }
+        }
+        
+        System.out.println("更新功能 " + paths.getBranch() + " 的代理上下文文件");
+        AgentContextService.PlanData data;
+        try {
+            data = agentContextService.parsePlan(plan);
+        } catch (IOException e) {
+            ConsoleUtils.error("解析 plan.md 失败: " + e.getMessage());
+            return 1;
+        }
+        if (data.getLanguage().isEmpty()) {
+            ConsoleUtils.warning("计划中未找到语言信息");
+        }
+        
+        String projectName = repoRoot.getFileName() != null ? repoRoot.getFileName().toString() : repoRoot.toString();
+        String date = LocalDate.now().toString();
+        
+        // Files are independent, so rewrite them concurrently and report in a stable order
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(targets.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "specify-agent-context");
+                thread.setDaemon(true);
+                return thread;
+            });
+        boolean success = true;
+        try {
+            List<Future<AgentContextService.Result>> results = new ArrayList<>();
+            for (Path file : targets.keySet()) {
+                results.add(executor.submit(() -> agentContextService.update(
+                    file, data, paths.getBranch(), projectName, date, template)));
+            }
+            int i = 0;
+            for (Map.Entry<Path, String> target : targets.entrySet()) {
+                String relative = repoRoot.relativize(target.getKey()).toString();
+                try {
+                    ConsoleUtils.success(describe(results.get(i++).get()) + target.getValue() + " 上下文文件: " + relative);
+                } catch (ExecutionException e) {
+                    ConsoleUtils.error("更新 " + target.getValue() + " 上下文文件失败: " + e.getCause().getMessage());
+                    success = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        System.out.println();
+        if (!data.getLanguage().isEmpty()) {
+            System.out.println("  - 语言: " + data.getLanguage());
+        }
+        if (!data.getFramework().isEmpty()) {
+            System.out.println("  - 框架: " + data.getFramework());
+        }
+        if (!data.getDatabase().isEmpty()) {
+            System.out.println("  - 数据库: " + data.getDatabase());
+        }
+        if (!data.getProjectType().isEmpty()) {
+            System.out.println("  - 项目类型: " + data.getProjectType());
+        }
+        
+        if (!success) {
+            ConsoleUtils.error("代理上下文更新完成，但存在错误");
+            return 1;
+        }
+        ConsoleUtils.success("代理上下文更新完成");
+        return 0;
+    }
+    
+    /**
+     * Context files that already exist, each mapped to the agents sharing it,
+     * e.g. AGENTS.md for codex/opencode/amp/q
+     */
+    static Map<Path, String> existingContextFiles(Path repoRoot) {
+        Map<Path, String> files = new LinkedHashMap<>();
+        AgentConfig.getAgents().values().forEach(agent -> {
+            Path file = repoRoot.resolve(agent.getContextFile());
+            if (Files.isRegularFile(file)) {
+                files.merge(file, agent.getName(), (a, b) -> a + "/" + b);
+            }
+        });
+        return files;
+    }
+    
+    static String describe(AgentContextService.Result result) {
+        switch (result) {
+            case CREATED:
+                return "已创建 ";
+            case UNCHANGED:
+                return "无需更新 ";
+            default:
+                return "已更新 ";
+        }
+    }
+}
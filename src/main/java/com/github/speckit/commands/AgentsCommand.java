@@ -0,0 +1,101 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.config.AgentConfig;
+import com.google.gson.GsonBuilder;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+@Command(
+    name = "agents",
+    description = "列出支持的 AI 助手，或导出供 bash / PowerShell 脚本使用的代理列表快照"
+)
+public class AgentsCommand implements Callable<Integer> {
+    
+    enum Format { sh, ps, json }
+    
+    @Option(
+        names = {"--export"},
+        description = "导出格式：${COMPLETION-CANDIDATES}"
+    )
+    private Format format;
+    
+    @Override
+    public Integer call() {
+        Map<String, AgentConfig.Agent> agents = AgentConfig.getAgents();
+        if (format == null) {
+            agents.forEach((key, agent) -> System.out.println(String.format("%-14s %-24s %-12s %s",
+                key, agent.getName(), agent.getFolder(), agent.getContextFile())));
+            return 0;
+        }
+        switch (format) {
+            case sh:
+                printShell(agents);
+                break;
+            case ps:
+                printPowerShell(agents);
+                break;
+            default:
+                printJson(agents);
+                break;
+        }
+        return 0;
+    }
+    
+    /**
+     * Variables for {@code eval "$(specify agents --export sh)"}: SPECIFY_AGENT_KEYS plus
+     * SPECIFY_AGENT_&lt;KEY&gt;_NAME/_FOLDER/_FILE, with dashes in keys turned into underscores
+     */
+    private static void printShell(Map<String, AgentConfig.Agent> agents) {
+        System.out.println("# Generated by specify agents --export sh; do not edit");
+        System.out.println("SPECIFY_AGENT_KEYS=" + shellQuote(String.join(" ", agents.keySet())));
+        agents.forEach((key, agent) -> {
+            String prefix = "SPECIFY_AGENT_" + key.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_");
+            System.out.println(prefix + "_NAME=" + shellQuote(agent.getName()));
+            System.out.println(prefix + "_FOLDER=" + shellQuote(agent.getFolder()));
+            System.out.println(prefix + "_FILE=" + shellQuote(agent.getContextFile()));
+        });
+    }
+    
+    /**
+     * An ordered hashtable $SpecifyAgents for dot-sourcing, keyed by agent
+     */
+    private static void printPowerShell(Map<String, AgentConfig.Agent> agents) {
+        System.out.println("# Generated by specify agents --export ps; do not edit");
+        System.out.println("$SpecifyAgents = [ordered]@{");
+        agents.forEach((key, agent) -> System.out.println("    " + psQuote(key) + " = @{ Name = "
+            + psQuote(agent.getName()) + "; Folder = " + psQuote(agent.getFolder()) + "; ContextFile = "
+            + psQuote(agent.getContextFile()) + "; RequiresCli = $" + agent.requiresCli() + " }"));
+        System.out.println("}");
+    }
+    
+    private static void printJson(Map<String, AgentConfig.Agent> agents) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        agents.forEach((key, agent) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("key", key);
+            entry.put("name", agent.getName());
+            entry.put("folder", agent.getFolder());
+            entry.put("contextFile", agent.getContextFile());
+            entry.put("installUrl", agent.getInstallUrl());
+            entry.put("requiresCli", agent.requiresCli());
+            entries.add(entry);
+        });
+        System.out.println(new GsonBuilder().disableHtmlEscaping().serializeNulls().setPrettyPrinting()
+            .create().toJson(entries));
+    }
+    
+    private static String shellQuote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+    
+    private static String psQuote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
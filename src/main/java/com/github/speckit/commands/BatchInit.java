@@ -0,0 +1,307 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.config.AgentConfig;
+import com.github.speckit.services.EmbeddedTemplateService;
+import com.github.speckit.services.GitService;
+import com.github.speckit.services.GithubService;
+import com.github.speckit.services.TemplateCacheService;
+import com.github.speckit.services.TemplateService;
+import com.github.speckit.services.TemplateSource;
+import com.github.speckit.services.TemplateSources;
+import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.FileUtils;
+import com.github.speckit.utils.PhaseMetrics;
+import com.github.speckit.utils.Progress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch mode for init: takes each distinct agent/script template from the embedded
+ * bundle or, resolving the release once, from the configured template source, then
+ * extracts, git-inits and optionally commits projects on a bounded pool
+ */
+class BatchInit {
+    
+    /**
+     * One project of a batch
+     */
+    static class Project {
+        final String name;
+        final String ai;
+        final String script;
+        final Path path;
+        
+        Project(String name, String ai, String script) {
+            this.name = name;
+            this.ai = ai;
+            this.script = script;
+            this.path = Paths.get(name).toAbsolutePath();
+        }
+        
+        String templateKey() {
+            return ai + "-" + script;
+        }
+    }
+    
+    private final GithubService githubService;
+    private final List<String> sourceSpecs;
+    private final TemplateService templateService;
+    private final GitService gitService;
+    private final EmbeddedTemplateService embeddedTemplateService;
+    private final PhaseMetrics metrics;
+    private final boolean noCache;
+    private final boolean noGit;
+    private final boolean initialCommit;
+    private final boolean ignoreAgentTools;
+    private final int jobs;
+    
+    BatchInit(GithubService githubService, List<String> sourceSpecs,
+              TemplateService templateService, GitService gitService,
+              EmbeddedTemplateService embeddedTemplateService, PhaseMetrics metrics,
+              boolean noCache, boolean noGit, boolean initialCommit, boolean ignoreAgentTools, int jobs) {
+        this.githubService = githubService;
+        this.sourceSpecs = sourceSpecs;
+        this.templateService = templateService;
+        this.gitService = gitService;
+        this.embeddedTemplateService = embeddedTemplateService;
+        this.metrics = metrics;
+        this.noCache = noCache;
+        this.noGit = noGit;
+        this.initialCommit = initialCommit;
+        this.ignoreAgentTools = ignoreAgentTools;
+        this.jobs = Math.max(1, jobs);
+    }
+    
+    /**
+     * Reads a manifest with one project per line: {@code <name> [ai] [script]}.
+     * Blank lines and lines starting with # are ignored.
+     */
+    static List<Project> parseManifest(Path manifest, String defaultAi, String defaultScript) throws IOException {
+        List<Project> projects = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifest)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split("\\s+");
+            if (fields.length > 3) {
+                throw new IOException("清单第 " + lineNumber + " 行格式错误: " + line);
+            }
+            projects.add(new Project(
+                fields[0],
+                fields.length > 1 ? fields[1] : defaultAi,
+                fields.length > 2 ? fields[2] : defaultScript
+            ));
+        }
+        return projects;
+    }
+    
+    int run(List<Project> projects) throws Exception {
+        if (!validate(projects)) {
+            return 1;
+        }
+        
+        ConsoleUtils.info("批量初始化 " + projects.size() + " 个项目（并发 " + jobs + "）");
+        
+        // Holds embedded templates copied out for random access, and the throwaway
+        // cache that keeps --no-cache on the same download-once path
+        Path tempDir = Files.createTempDirectory("specify-batch");
+        try {
+            TemplateSource source;
+            try {
+                source = noCache
+                    ? TemplateSources.create(sourceSpecs, githubService, tempDir.resolve("cache"), Long.MAX_VALUE)
+                    : TemplateSources.create(sourceSpecs, githubService);
+            } catch (IllegalArgumentException e) {
+                ConsoleUtils.error("无效的模板来源: " + e.getMessage());
+                return 1;
+            }
+            
+            Map<String, Path> templates = fetchTemplates(source, projects, tempDir);
+            return initProjects(projects, templates);
+        } finally {
+            FileUtils.deleteQuietly(tempDir);
+        }
+    }
+    
+    private boolean validate(List<Project> projects) {
+        if (projects.isEmpty()) {
+            ConsoleUtils.error("批量初始化没有任何项目");
+            return false;
+        }
+        
+        Set<Path> seen = new HashSet<>();
+        Set<String> checkedAgents = new HashSet<>();
+        for (Project project : projects) {
+            if (".".equals(project.name)) {
+                ConsoleUtils.error("批量初始化不支持 '.'，请使用项目名称");
+                return false;
+            }
+            if (!seen.add(project.path)) {
+                ConsoleUtils.error("重复的项目: " + project.name);
+                return false;
+            }
+            if (Files.exists(project.path)) {
+                ConsoleUtils.error("目录已存在: " + project.name);
+                return false;
+            }
+            if (project.ai == null) {
+                ConsoleUtils.error("项目 " + project.name + " 未指定 AI 助手（使用 --ai 或在清单中指定）");
+                return false;
+            }
+            AgentConfig.Agent agent = AgentConfig.getAgent(project.ai);
+            if (agent == null) {
+                ConsoleUtils.error("无效的 AI 助手: " + project.ai);
+                return false;
+            }
+            if (!AgentConfig.SCRIPT_TYPE_CHOICES.containsKey(project.script)) {
+                ConsoleUtils.error("无效的脚本类型: " + project.script);
+                return false;
+            }
+            if (!ignoreAgentTools && agent.requiresCli() && checkedAgents.add(project.ai)
+                    && !ConsoleUtils.isToolInstalled(project.ai)) {
+                ConsoleUtils.error(project.ai + " CLI 未安装");
+                if (agent.getInstallUrl() != null) {
+                    ConsoleUtils.info("安装地址: " + agent.getInstallUrl());
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Map<String, Path> fetchTemplates(TemplateSource source, List<Project> projects, Path tempDir)
+            throws IOException {
+        Map<String, Path> templates = new LinkedHashMap<>();
+        List<Project> remote = new ArrayList<>();
+        for (Project project : projects) {
+            if (templates.containsKey(project.templateKey())) {
+                continue;
+            }
+            if (embeddedTemplateService != null && embeddedTemplateService.isAvailable(project.ai, project.script)) {
+                templates.put(project.templateKey(),
+                    embeddedTemplateService.copyTo(project.ai, project.script, tempDir));
+            } else {
+                remote.add(project);
+            }
+        }
+        if (remote.isEmpty()) {
+            ConsoleUtils.info("使用内置模板 " + embeddedTemplateService.getVersion());
+            return templates;
+        }
+        
+        // Release sources resolve the release once and reuse it for every template
+        boolean warnedOffline = false;
+        try (PhaseMetrics.Phase phase = metrics.begin("download")) {
+            for (Project project : remote) {
+                if (templates.containsKey(project.templateKey())) {
+                    continue;
+                }
+                TemplateCacheService.CachedTemplate cached;
+                try (Progress.Task task = ConsoleUtils.startTask(
+                        "获取模板 " + project.templateKey(), Progress.Unit.BYTES)) {
+                    AtomicLong downloaded = new AtomicLong();
+                    cached = source.fetch(project.ai, project.script, (read, total) -> {
+                        downloaded.set(read);
+                        task.update(read, total);
+                    });
+                    phase.addBytes(downloaded.get());
+                    String how = cached.isLocal() ? "本地模板" : cached.isHit() ? "缓存命中" : "完成";
+                    task.done(how + " (" + cached.getTag() + ")");
+                }
+                if (cached.isOffline() && !warnedOffline) {
+                    ConsoleUtils.warning("无法连接 GitHub，使用离线缓存");
+                    warnedOffline = true;
+                }
+                templates.put(project.templateKey(), cached.getZipPath());
+            }
+        }
+        return templates;
+    }
+    
+    private int initProjects(List<Project> projects, Map<String, Path> templates) throws InterruptedException {
+        boolean initGit = !noGit;
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicBoolean skippedCommit = new AtomicBoolean();
+        int total = projects.size();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, total), runnable -> {
+            Thread thread = new Thread(runnable, "specify-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try (PhaseMetrics.Phase phase = metrics.begin("projects")) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Project project : projects) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        // One live line per running project; removed before the result line is printed
+                        try (Progress.Task task = ConsoleUtils.startTask(project.name, Progress.Unit.FILES)) {
+                            TemplateService.ExtractResult extracted = templateService.extractArchive(
+                                templates.get(project.templateKey()), project.path, false, task::update);
+                            phase.addFiles(extracted.getAdded());
+                            if (initGit && !gitService.isGitRepo(project.path)) {
+                                gitService.initRepo(project.path, true);
+                                if (initialCommit && gitService.createInitialCommit(project.path) == null) {
+                                    skippedCommit.set(true);
+                                }
+                            }
+                        }
+                        report(done.incrementAndGet(), total, project, null);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        report(done.incrementAndGet(), total, project, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        if (skippedCommit.get()) {
+            ConsoleUtils.warning("未配置 git 用户名/邮箱，跳过初始提交");
+        }
+        if (failed.get() > 0) {
+            ConsoleUtils.error(failed.get() + "/" + total + " 个项目初始化失败");
+            return 1;
+        }
+        ConsoleUtils.success(total + " 个项目就绪！");
+        return 0;
+    }
+    
+    private static synchronized void report(int done, int total, Project project, Exception error) {
+        String prefix = String.format("[%d/%d] ", done, total);
+        if (error == null) {
+            ConsoleUtils.success(prefix + project.name + " (" + project.templateKey() + ")");
+        } else {
+            ConsoleUtils.error(prefix + project.name + ": " + error.getMessage());
+        }
+    }
+}
@@ -3,8 +3,15 @@ package com.github.speckit.commands;
 import com.github.speckit.config.AgentConfig;
 import com.github.speckit.utils.ConsoleUtils;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Command(
     name = "check",
@@ -12,37 +19,91 @@ import java.util.concurrent.Callable;
 )
 public class CheckCommand implements Callable<Integer> {
     
+    @Option(
+        names = {"--timeout"},
+        description = "单个工具探测的超时时间（秒），默认 ${DEFAULT-VALUE}",
+        defaultValue = "" + ConsoleUtils.DEFAULT_TOOL_TIMEOUT_SECONDS
+    )
+    private long timeoutSeconds;
+    
+    @Option(
+        names = {"--deep"},
+        description = "执行 --version 进行深度验证（默认仅扫描 PATH）"
+    )
+    private boolean deep;
+    
     @Override
     public Integer call() {
         System.out.println("检查已安装的工具...\n");
         
-        // Check Git
-        checkAndPrint("git", "Git 版本控制");
-        
-        // Check all agents
-        AgentConfig.AGENTS.forEach((key, agent) -> {
+        // Build the probe list in stable display order
+        List<Probe> probes = new ArrayList<>();
+        probes.add(new Probe("git", "Git 版本控制"));
+        AgentConfig.getAgents().forEach((key, agent) -> {
             if (agent.requiresCli()) {
-                checkAndPrint(key, agent.getName());
+                probes.add(new Probe(key, agent.getName()));
             } else {
-                System.out.println("  ○ " + agent.getName() + " (基于 IDE，无 CLI 检查)");
+                probes.add(new Probe(null, agent.getName()));
             }
         });
+        probes.add(new Probe("code", "Visual Studio Code"));
+        probes.add(new Probe("code-insiders", "Visual Studio Code Insiders"));
         
-        // Check VS Code variants
-        checkAndPrint("code", "Visual Studio Code");
-        checkAndPrint("code-insiders", "Visual Studio Code Insiders");
+        if (!deep) {
+            // Fast path: resolve against the PATH index without forking
+            for (Probe probe : probes) {
+                if (probe.tool != null) {
+                    probe.result = CompletableFuture.completedFuture(ConsoleUtils.isToolInstalled(probe.tool));
+                }
+                print(probe);
+            }
+            ConsoleUtils.success("\nSpecify CLI 已就绪！");
+            return 0;
+        }
+        
+        // Run every probe concurrently, then print results in order
+        ExecutorService executor = Executors.newFixedThreadPool(probes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "specify-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Probe probe : probes) {
+                if (probe.tool != null) {
+                    probe.result = CompletableFuture.supplyAsync(
+                        () -> ConsoleUtils.checkTool(probe.tool, timeoutSeconds, TimeUnit.SECONDS), executor);
+                }
+            }
+            for (Probe probe : probes) {
+                print(probe);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
         
         ConsoleUtils.success("\nSpecify CLI 已就绪！");
         
         return 0;
     }
     
-    private void checkAndPrint(String tool, String name) {
-        boolean available = ConsoleUtils.checkTool(tool);
-        if (available) {
-            System.out.println("  ✓ " + name);
+    private void print(Probe probe) {
+        if (probe.tool == null) {
+            System.out.println("  ○ " + probe.name + " (基于 IDE，无 CLI 检查)");
+        } else if (probe.result.join()) {
+            System.out.println("  ✓ " + probe.name);
         } else {
-            System.out.println("  ✗ " + name);
+            System.out.println("  ✗ " + probe.name);
+        }
+    }
+    
+    private static class Probe {
+        final String tool;
+        final String name;
+        CompletableFuture<Boolean> result;
+        
+        Probe(String tool, String name) {
+            this.tool = tool;
+            this.name = name;
         }
     }
 }
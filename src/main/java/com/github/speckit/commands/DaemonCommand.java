@@ -0,0 +1,103 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.config.AgentConfig;
+import com.github.speckit.services.DaemonClient;
+import com.github.speckit.services.DaemonServer;
+import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.Invocation;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+@Command(
+    name = "daemon",
+    description = "启动常驻进程，转发 feature、prereq、agent-context 命令以省去 JVM 启动时间"
+)
+public class DaemonCommand implements Callable<Integer> {
+    
+    @Option(
+        names = {"--stop"},
+        description = "停止正在运行的常驻进程"
+    )
+    private boolean stop;
+    
+    @Option(
+        names = {"--status"},
+        description = "查看常驻进程是否在运行"
+    )
+    private boolean status;
+    
+    @Option(
+        names = {"--idle-timeout"},
+        description = "空闲多少分钟后自动退出，0 表示不退出，默认 ${DEFAULT-VALUE}",
+        defaultValue = "30"
+    )
+    private long idleMinutes;
+    
+    @Option(
+        names = {"--request-timeout"},
+        description = "单个请求最多执行多少秒，超时后常驻进程退出，之后的调用在本进程执行，默认 ${DEFAULT-VALUE}",
+        defaultValue = "60"
+    )
+    private long requestSeconds;
+    
+    // 在常驻进程内执行一条命令行，返回退出码
+    private final Function<String[], Integer> executor;
+    
+    public DaemonCommand(Function<String[], Integer> executor) {
+        this.executor = executor;
+    }
+    
+    @Override
+    public Integer call() {
+        Path socket = DaemonClient.socketPath();
+        if (stop) {
+            if (!DaemonClient.stop()) {
+                ConsoleUtils.warning("常驻进程未运行");
+                return 1;
+            }
+            ConsoleUtils.success("常驻进程已停止");
+            return 0;
+        }
+        if (status) {
+            Long pid = DaemonClient.ping();
+            if (pid == null) {
+                System.out.println("常驻进程未运行");
+                return 1;
+            }
+            System.out.println("常驻进程运行中 (pid " + pid + "): " + socket);
+            return 0;
+        }
+        
+        AgentConfig.getAgentKeys();                     // Parse the built-in agent table before the first request
+        DaemonServer server = new DaemonServer(socket, (workingDirectory, environment, colors, args) -> {
+            if (!DaemonClient.isForwarded(args)) {
+                System.err.println("Error: 常驻进程不执行此命令: " + String.join(" ", args));
+                return 2;
+            }
+            return Invocation.with(workingDirectory, environment, () -> {
+                ConsoleUtils.useRawOutput(colors);
+                return executor.apply(args);
+            });
+        }, idleMinutes * 60_000, requestSeconds * 1000);
+        
+        try {
+            server.bind();
+        } catch (IOException e) {
+            ConsoleUtils.error("常驻进程启动失败: " + e.getMessage());
+            return 1;
+        }
+        ConsoleUtils.info("常驻进程已启动: " + socket);
+        try {
+            server.serve();
+        } catch (IOException e) {
+            ConsoleUtils.error("常驻进程异常退出: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.services.FeaturePaths;
+import com.github.speckit.services.FeatureService;
+import com.github.speckit.services.GitService;
+import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.Invocation;
+import com.google.gson.GsonBuilder;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+@Command(
+    name = "feature",
+    description = "管理功能分支和规范目录",
+    subcommands = {FeatureCommand.NewCommand.class}
+)
+public class FeatureCommand implements Runnable {
+    
+    @Spec
+    private CommandSpec spec;
+    
+    @Override
+    public void run() {
+        spec.commandLine().usage(System.out);
+    }
+    
+    @Command(
+        name = "new",
+        description = "创建新功能：分配编号、创建分支和 specs 目录（替代 create-new-feature.sh）"
+    )
+    public static class NewCommand implements Callable<Integer> {
+        
+        @Parameters(
+            description = "功能描述",
+            arity = "1..*"
+        )
+        private List<String> description = new ArrayList<>();
+        
+        @Option(
+            names = {"--json"},
+            description = "以 JSON 格式输出"
+        )
+        private boolean json;
+        
+        @Option(
+            names = {"--short-name"},
+            description = "自定义分支短名称（2-4 个单词）"
+        )
+        private String shortName;
+        
+        @Option(
+            names = {"--number"},
+            description = "手动指定功能编号（跳过自动分配）"
+        )
+        private Integer number;
+        
+        @Option(
+            names = {"--fetch"},
+            description = "分配编号前执行 git fetch --all --prune，让远程分支也参与编号（较慢）"
+        )
+        private boolean fetch;
+        
+        private final GitService gitService = new GitService();
+        
+        @Override
+        public Integer call() {
+            Path repoRoot = FeaturePaths.findRepoRoot(Invocation.workingDirectory());
+            if (repoRoot == null) {
+                ConsoleUtils.error("无法确定仓库根目录，请在仓库内运行此命令");
+                return 1;
+            }
+            Path workTree = gitService.findWorkTree(repoRoot);
+            Path specsDir = repoRoot.resolve("specs");
+            FeatureService featureService = new FeatureService(gitService);
+            
+            String suffix = shortName != null
+                ? FeatureService.sanitize(shortName)
+                : FeatureService.suffixFromDescription(String.join(" ", description));
+            
+            try {
+                Files.createDirectories(specsDir);
+                
+                if (number == null) {
+                    if (fetch && workTree != null && !gitService.fetchAll(workTree)) {
+                        System.err.println("[specify] Warning: git fetch failed; allocating from local refs");
+                    }
+                    number = featureService.highestNumber(repoRoot, workTree) + 1;
+                }
+                String featureNum = String.format("%03d", number);
+                String branchName = featureNum + "-" + suffix;
+                
+                if (branchName.length() > FeatureService.MAX_BRANCH_LENGTH) {
+                    String truncated = suffix.substring(0, FeatureService.MAX_BRANCH_LENGTH - 4).replaceAll("-$", "");
+                    String original = branchName;
+                    branchName = featureNum + "-" + truncated;
+                    System.err.println("[specify] Warning: Branch name exceeded GitHub's 244-byte limit");
+                    System.err.println("[specify] Original: " + original + " (" + original.length() + " bytes)");
+                    System.err.println("[specify] Truncated to: " + branchName + " (" + branchName.length() + " bytes)");
+                }
+                
+                if (workTree != null) {
+                    gitService.createBranch(workTree, branchName);
+                } else {
+                    System.err.println("[specify] Warning: Git repository not detected; skipped branch creation for " + branchName);
+                }
+                
+                Path featureDir = specsDir.resolve(branchName);
+                Files.createDirectories(featureDir);
+                Path specFile = featureDir.resolve("spec.md");
+                Path template = repoRoot.resolve(".specify/templates/spec-template.md");
+                if (Files.isRegularFile(template)) {
+                    Files.copy(template, specFile, StandardCopyOption.REPLACE_EXISTING);
+                } else if (!Files.exists(specFile)) {
+                    Files.createFile(specFile);
+                }
+                
+                if (json) {
+                    Map<String, String> result = new LinkedHashMap<>();
+                    result.put("BRANCH_NAME", branchName);
+                    result.put("SPEC_FILE", specFile.toString());
+                    result.put("FEATURE_NUM", featureNum);
+                    System.out.println(new GsonBuilder().disableHtmlEscaping().create().toJson(result));
+                } else {
+                    System.out.println("BRANCH_NAME: " + branchName);
+                    System.out.println("SPEC_FILE: " + specFile);
+                    System.out.println("FEATURE_NUM: " + featureNum);
+                    // Printed like the script, which exports the variable only into its own shell
+                    System.out.println("SPECIFY_FEATURE environment variable set to: " + branchName);
+                }
+                return 0;
+            } catch (IOException e) {
+                ConsoleUtils.error("创建功能失败: " + e.getMessage());
+                return 1;
+            }
+        }
+    }
+}
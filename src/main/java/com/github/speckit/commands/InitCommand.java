@@ -1,19 +1,30 @@
 package com.github.speckit.commands;
 
 import com.github.speckit.config.AgentConfig;
+import com.github.speckit.services.EmbeddedTemplateService;
 import com.github.speckit.services.GithubService;
 import com.github.speckit.services.GitService;
-import com.github.speckit.services.ScriptService;
+import com.github.speckit.services.TemplateCacheService;
 import com.github.speckit.services.TemplateService;
+import com.github.speckit.services.TemplateSource;
+import com.github.speckit.services.TemplateSources;
 import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.FileUtils;
+import com.github.speckit.utils.PhaseMetrics;
+import com.github.speckit.utils.Progress;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Command(
     name = "init",
@@ -22,10 +33,11 @@ import java.util.concurrent.Callable;
 public class InitCommand implements Callable<Integer> {
     
     @Parameters(
-        index = "0",
-        description = "新项目目录的名称（使用 '.' 表示当前目录）",
-        arity = "0..1"
+        description = "新项目目录的名称（使用 '.' 表示当前目录；指定多个名称时批量初始化）",
+        arity = "0..*"
     )
+    private List<String> projectNames = new ArrayList<>();
+    
     private String projectName;
     
     @Option(
@@ -64,13 +76,89 @@ public class InitCommand implements Callable<Integer> {
     )
     private boolean force;
     
-    private final GithubService githubService = new GithubService();
-    private final TemplateService templateService = new TemplateService();
-    private final ScriptService scriptService = new ScriptService();
-    private final GitService gitService = new GitService();
+    @Option(
+        names = {"--initial-commit"},
+        description = "初始化 git 仓库后创建初始提交（不支持 --here）"
+    )
+    private boolean initialCommit;
+    
+    @Option(
+        names = {"--source"},
+        split = ",",
+        paramLabel = "<source>",
+        description = "模板来源：github、mirror:<URL> 或 local:<目录/zip>；多个来源按顺序回退，"
+            + "默认读取环境变量 SPECIFY_TEMPLATE_SOURCE"
+    )
+    private List<String> sources = new ArrayList<>();
+    
+    @Option(
+        names = {"--remote"},
+        description = "忽略内置模板，从 GitHub 下载最新模板"
+    )
+    private boolean remote;
+    
+    @Option(
+        names = {"--stream"},
+        description = "边下载边解压，不写入临时 zip 文件（仅支持 GitHub 来源，不使用内置模板）"
+    )
+    private boolean stream;
+    
+    @Option(
+        names = {"--no-cache"},
+        description = "跳过本地模板缓存和内置模板，始终重新下载"
+    )
+    private boolean noCache;
+    
+    @Option(
+        names = {"--timings"},
+        description = "输出各阶段耗时统计"
+    )
+    private boolean timings;
+    
+    @Option(
+        names = {"--timings-json"},
+        paramLabel = "<file>",
+        description = "将各阶段指标以 JSON 写入文件（'-' 表示标准输出）"
+    )
+    private String timingsJson;
+    
+    @Option(
+        names = {"--manifest"},
+        paramLabel = "<file>",
+        description = "批量初始化清单，每行一个项目：<名称> [AI 助手] [脚本类型]"
+    )
+    private Path manifest;
+    
+    @Option(
+        names = {"--jobs"},
+        description = "批量初始化的并发数，默认 ${DEFAULT-VALUE}",
+        defaultValue = "4"
+    )
+    private int jobs;
+    
+    // Services are created on first use, so --help and validation failures never build an HTTP client
+    private GithubService githubService;
+    private TemplateService templateService;
+    private GitService gitService;
+    private EmbeddedTemplateService embeddedTemplateService;
+    private final PhaseMetrics metrics = new PhaseMetrics();
     
     @Override
     public Integer call() throws Exception {
+        try {
+            return runInit();
+        } finally {
+            reportTimings();
+        }
+    }
+    
+    private Integer runInit() throws Exception {
+        // 0. Batch mode: manifest or several project names
+        if (manifest != null || projectNames.size() > 1) {
+            return runBatch();
+        }
+        projectName = projectNames.isEmpty() ? null : projectNames.get(0);
+        
         // 1. Validate parameters
         if (".".equals(projectName)) {
             here = true;
@@ -101,27 +189,43 @@ public class InitCommand implements Callable<Integer> {
             return 1;
         }
         
+        if (stream && !TemplateSources.isGithubOnly(sources)) {
+            ConsoleUtils.error("--stream 只支持从 GitHub 下载，不能与其他模板来源同时使用");
+            return 1;
+        }
+        
         // 3. Select AI assistant
         String selectedAi = aiAssistant;
-        if (selectedAi == null) {
-            selectedAi = ConsoleUtils.selectAgent(AgentConfig.AGENTS);
+        AgentConfig.Agent agent;
+        PhaseMetrics.Phase selectPhase = metrics.begin("select-agent");
+        try {
+            if (selectedAi == null) {
+                selectedAi = ConsoleUtils.selectAgent(AgentConfig.getAgents());
+            }
+            agent = AgentConfig.getAgent(selectedAi);
+        } finally {
+            selectPhase.close();
         }
         
-        AgentConfig.Agent agent = AgentConfig.getAgent(selectedAi);
         if (agent == null) {
             ConsoleUtils.error("无效的 AI 助手: " + selectedAi);
             return 1;
         }
         
         // 4. Check CLI tool
-        if (!ignoreAgentTools && agent.requiresCli()) {
-            if (!ConsoleUtils.checkTool(selectedAi)) {
-                ConsoleUtils.error(selectedAi + " CLI 未安装");
-                if (agent.getInstallUrl() != null) {
-                    ConsoleUtils.info("安装地址: " + agent.getInstallUrl());
+        PhaseMetrics.Phase toolPhase = metrics.begin("tool-check");
+        try {
+            if (!ignoreAgentTools && agent.requiresCli()) {
+                if (!ConsoleUtils.isToolInstalled(selectedAi)) {
+                    ConsoleUtils.error(selectedAi + " CLI 未安装");
+                    if (agent.getInstallUrl() != null) {
+                        ConsoleUtils.info("安装地址: " + agent.getInstallUrl());
+                    }
+                    return 1;
                 }
-                return 1;
             }
+        } finally {
+            toolPhase.close();
         }
         
         // 5. Select script type
@@ -135,36 +239,187 @@ public class InitCommand implements Callable<Integer> {
         ConsoleUtils.info("已选择脚本类型: " + selectedScript);
         
         // 6. Download and extract template
-        ConsoleUtils.startProgress("下载模板");
-        Path zipPath = githubService.downloadTemplate(selectedAi, selectedScript);
-        ConsoleUtils.completeProgress("完成");
-        
-        ConsoleUtils.startProgress("解压模板");
-        templateService.extractTemplate(zipPath, projectPath, here);
-        ConsoleUtils.completeProgress("完成");
-        
-        // 7. Set script permissions
-        if ("sh".equals(selectedScript) && !System.getProperty("os.name")
-            .toLowerCase().contains("win")) {
-            scriptService.setExecutablePermissions(projectPath);
-        }
-        
-        // 8. Initialize git repository
-        if (!noGit && ConsoleUtils.checkTool("git")) {
-            if (!gitService.isGitRepo(projectPath)) {
-                ConsoleUtils.startProgress("初始化 git 仓库");
-                gitService.initRepo(projectPath);
-                ConsoleUtils.completeProgress("完成");
+        TemplateService.ExtractResult extracted;
+        Path zipPath;
+        if (embeddedAllowed() && embeddedTemplateService().isAvailable(selectedAi, selectedScript)) {
+            try (PhaseMetrics.Phase phase = metrics.begin("extract");
+                 InputStream in = embeddedTemplateService().open(selectedAi, selectedScript);
+                 Progress.Task task = ConsoleUtils.startTask("解压内置模板", Progress.Unit.FILES)) {
+                extracted = templateService().extractTemplate(phase.count(in), projectPath, here, task::update);
+                phase.addFiles(extracted.getAdded() + extracted.getUpdated());
+                task.done("完成 (" + embeddedTemplateService().getVersion() + ")");
             }
+        } else if (stream) {
+            try (PhaseMetrics.Phase phase = metrics.begin("download-extract");
+                 Progress.Task task = ConsoleUtils.startTask("下载并解压模板", Progress.Unit.FILES)) {
+                extracted = githubService().streamTemplate(selectedAi, selectedScript,
+                    in -> templateService().extractTemplate(phase.count(in), projectPath, here, task::update));
+                phase.addFiles(extracted.getAdded() + extracted.getUpdated());
+                task.done("完成");
+            }
+        } else {
+            // --no-cache fetches through a throwaway cache, so configured sources still apply
+            Path cacheDir = noCache ? Files.createTempDirectory("specify-init") : null;
+            try {
+                TemplateSource source;
+                try {
+                    source = noCache
+                        ? TemplateSources.create(sources, githubService(), cacheDir, Long.MAX_VALUE)
+                        : TemplateSources.create(sources, githubService());
+                } catch (IllegalArgumentException e) {
+                    ConsoleUtils.error("无效的模板来源: " + e.getMessage());
+                    return 1;
+                }
+                
+                try (PhaseMetrics.Phase phase = metrics.begin("download");
+                     Progress.Task task = ConsoleUtils.startTask("获取模板", Progress.Unit.BYTES)) {
+                    AtomicLong downloaded = new AtomicLong();
+                    TemplateCacheService.CachedTemplate cached = source.fetch(
+                        selectedAi, selectedScript, (read, total) -> {
+                            downloaded.set(read);
+                            task.update(read, total);
+                        });
+                    phase.addBytes(downloaded.get());
+                    String how = cached.isLocal() ? "本地模板" : cached.isHit() ? "缓存命中"
+                        : noCache ? "已下载" : "已下载并缓存";
+                    task.done(how + " (" + cached.getTag() + ")");
+                    if (cached.isOffline()) {
+                        ConsoleUtils.warning("无法连接 GitHub，使用离线缓存");
+                    }
+                    zipPath = cached.getZipPath();
+                }
+                
+                try (PhaseMetrics.Phase phase = metrics.begin("extract");
+                     Progress.Task task = ConsoleUtils.startTask("解压模板", Progress.Unit.FILES)) {
+                    extracted = templateService().extractArchive(zipPath, projectPath, here, task::update);
+                    phase.addFiles(extracted.getAdded() + extracted.getUpdated());
+                    task.done("完成");
+                }
+            } finally {
+                if (cacheDir != null) {
+                    FileUtils.deleteQuietly(cacheDir);
+                }
+            }
+        }
+        
+        if (here) {
+            ConsoleUtils.info(String.format("合并结果：新增 %d，更新 %d，未变更 %d",
+                extracted.getAdded(), extracted.getUpdated(), extracted.getUnchanged()));
         }
         
-        // 9. Show completion message
+        // 7. Initialize git repository (written in-process, git itself is not required)
+        if (!noGit && !gitService().isGitRepo(projectPath)) {
+            PhaseMetrics.Phase gitPhase = metrics.begin("git-init");
+            try {
+                try (Progress.Task task = ConsoleUtils.startTask("初始化 git 仓库")) {
+                    // Quiet: git's own "Initialized empty Git repository" line would land on the live task line
+                    gitService().initRepo(projectPath, true);
+                    task.done("完成 (" + projectPath.resolve(".git") + ")");
+                }
+                
+                if (initialCommit && here) {
+                    ConsoleUtils.warning("--here 模式下不创建初始提交");
+                } else if (initialCommit) {
+                    try (Progress.Task task = ConsoleUtils.startTask("创建初始提交")) {
+                        String commitId = gitService().createInitialCommit(projectPath);
+                        if (commitId != null) {
+                            task.done(commitId.substring(0, 7));
+                        } else {
+                            task.done("跳过");
+                            ConsoleUtils.warning("未配置 git 用户名/邮箱，跳过初始提交");
+                        }
+                    }
+                }
+            } finally {
+                gitPhase.close();
+            }
+        }
+        
+        // 8. Show completion message
         ConsoleUtils.success("项目就绪！");
         showNextSteps(projectName, selectedAi, here);
         
         return 0;
     }
     
+    private Integer runBatch() throws Exception {
+        if (here) {
+            ConsoleUtils.error("批量初始化不支持 --here 标志");
+            return 1;
+        }
+        if (stream) {
+            // A batch downloads each template once and extracts it for several projects
+            ConsoleUtils.error("批量初始化不支持 --stream 标志");
+            return 1;
+        }
+        
+        String defaultScript = scriptType != null ? scriptType
+            : System.getProperty("os.name").toLowerCase().contains("win") ? "ps" : "sh";
+        
+        List<BatchInit.Project> projects = new ArrayList<>();
+        if (manifest != null) {
+            projects.addAll(BatchInit.parseManifest(manifest, aiAssistant, defaultScript));
+        }
+        for (String name : projectNames) {
+            projects.add(new BatchInit.Project(name, aiAssistant, defaultScript));
+        }
+        
+        BatchInit batch = new BatchInit(githubService(), sources, templateService(), gitService(),
+            embeddedAllowed() ? embeddedTemplateService() : null, metrics,
+            noCache, noGit, initialCommit, ignoreAgentTools, jobs);
+        return batch.run(projects);
+    }
+    
+    /**
+     * Embedded templates answer only when no option asks for a download: --remote, --stream,
+     * --no-cache or a configured source
+     */
+    private boolean embeddedAllowed() {
+        return !remote && !stream && !noCache && !TemplateSources.isConfigured(sources);
+    }
+    
+    private GithubService githubService() {
+        if (githubService == null) {
+            githubService = new GithubService();
+        }
+        return githubService;
+    }
+    
+    private TemplateService templateService() {
+        if (templateService == null) {
+            templateService = new TemplateService();
+        }
+        return templateService;
+    }
+    
+    private GitService gitService() {
+        if (gitService == null) {
+            gitService = new GitService();
+        }
+        return gitService;
+    }
+    
+    private EmbeddedTemplateService embeddedTemplateService() {
+        if (embeddedTemplateService == null) {
+            embeddedTemplateService = new EmbeddedTemplateService();
+        }
+        return embeddedTemplateService;
+    }
+    
+    private void reportTimings() throws IOException {
+        if (timings) {
+            metrics.print();
+        }
+        if (timingsJson != null) {
+            String json = metrics.toJson().toString();
+            if ("-".equals(timingsJson)) {
+                System.out.println(json);
+            } else {
+                Files.writeString(Paths.get(timingsJson), json + System.lineSeparator());
+            }
+        }
+    }
+    
     private void showNextSteps(String projectName, String ai, boolean here) {
         System.out.println("\n=== 下一步 ===");
         if (!here) {
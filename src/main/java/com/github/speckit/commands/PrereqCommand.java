@@ -0,0 +1,132 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.services.FeaturePaths;
+import com.github.speckit.utils.Invocation;
+import com.google.gson.GsonBuilder;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+@Command(
+    name = "prereq",
+    description = "检查当前功能的前置文档并输出路径，输出格式与 check-prerequisites.sh 相同"
+)
+public class PrereqCommand implements Callable<Integer> {
+    
+    @Option(
+        names = {"--json"},
+        description = "以 JSON 格式输出"
+    )
+    private boolean json;
+    
+    @Option(
+        names = {"--require-tasks"},
+        description = "要求 tasks.md 存在（实施阶段）"
+    )
+    private boolean requireTasks;
+    
+    @Option(
+        names = {"--include-tasks"},
+        description = "在 AVAILABLE_DOCS 中包含 tasks.md"
+    )
+    private boolean includeTasks;
+    
+    @Option(
+        names = {"--paths-only"},
+        description = "只输出路径变量，不做前置检查"
+    )
+    private boolean pathsOnly;
+    
+    @Override
+    public Integer call() {
+        FeaturePaths paths;
+        try {
+            paths = FeaturePaths.resolve(Invocation.workingDirectory(), Invocation.getenv(FeaturePaths.ENV_FEATURE));
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            return 1;
+        }
+        if (!paths.getDuplicates().isEmpty()) {
+            System.err.println("ERROR: Multiple spec directories found with prefix '"
+                + FeaturePaths.prefixOf(paths.getBranch()) + "': " + String.join(" ", paths.getDuplicates()));
+            System.err.println("Please ensure only one spec directory exists per numeric prefix.");
+        }
+        
+        String branch = paths.getBranch();
+        if (!paths.hasGit()) {
+            System.err.println("[specify] Warning: Git repository not detected; skipped branch validation");
+        } else if (!branch.matches("\\d{3}-.*")) {
+            System.err.println("ERROR: Not on a feature branch. Current branch: " + branch);
+            System.err.println("Feature branches should be named like: 001-feature-name");
+            return 1;
+        }
+        
+        Path featureDir = paths.getFeatureDir();
+        if (pathsOnly) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("REPO_ROOT", paths.getRepoRoot().toString());
+            result.put("BRANCH", branch);
+            result.put("FEATURE_DIR", featureDir.toString());
+            result.put("FEATURE_SPEC", paths.getFeatureSpec().toString());
+            result.put("IMPL_PLAN", paths.getImplPlan().toString());
+            result.put("TASKS", paths.getTasks().toString());
+            if (json) {
+                System.out.println(new GsonBuilder().disableHtmlEscaping().create().toJson(result));
+            } else {
+                result.forEach((key, value) -> System.out.println(key + ": " + value));
+            }
+            return 0;
+        }
+        
+        if (!Files.isDirectory(featureDir)) {
+            System.err.println("ERROR: Feature directory not found: " + featureDir);
+            System.err.println("Run /speckit.specify first to create the feature structure.");
+            return 1;
+        }
+        if (!paths.hasDoc("plan.md")) {
+            System.err.println("ERROR: plan.md not found in " + featureDir);
+            System.err.println("Run /speckit.plan first to create the implementation plan.");
+            return 1;
+        }
+        if (requireTasks && !paths.hasDoc("tasks.md")) {
+            System.err.println("ERROR: tasks.md not found in " + featureDir);
+            System.err.println("Run /speckit.tasks first to create the task list.");
+            return 1;
+        }
+        
+        // Same order as the script
+        Map<String, Boolean> docs = new LinkedHashMap<>();
+        for (String doc : List.of("research.md", "data-model.md", "contracts/", "quickstart.md")) {
+            docs.put(doc, paths.hasDoc(doc));
+        }
+        if (includeTasks) {
+            docs.put("tasks.md", paths.hasDoc("tasks.md"));
+        }
+        
+        if (json) {
+            List<String> available = new ArrayList<>();
+            docs.forEach((name, present) -> {
+                if (present) {
+                    available.add(name);
+                }
+            });
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("FEATURE_DIR", featureDir.toString());
+            result.put("AVAILABLE_DOCS", available);
+            System.out.println(new GsonBuilder().disableHtmlEscaping().create().toJson(result));
+        } else {
+            System.out.println("FEATURE_DIR:" + featureDir);
+            System.out.println("AVAILABLE_DOCS:");
+            docs.forEach((name, present) -> System.out.println("  " + (present ? "✓ " : "✗ ") + name));
+        }
+        return 0;
+    }
+}
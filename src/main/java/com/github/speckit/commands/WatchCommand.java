@@ -0,0 +1,191 @@
+package com.github.speckit.commands;
+
+import com.github.speckit.config.AgentConfig;
+import com.github.speckit.services.AgentContextService;
+import com.github.speckit.services.DebouncedWatcher;
+import com.github.speckit.services.FeaturePaths;
+import com.github.speckit.utils.ConsoleUtils;
+import com.github.speckit.utils.Invocation;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+@Command(
+    name = "watch",
+    description = "监听 specs/*/plan.md 和代理目录，变化时增量更新已有的代理上下文文件"
+)
+public class WatchCommand implements Callable<Integer> {
+    
+    private static final String TEMPLATE = ".specify/templates/agent-file-template.md";
+    
+    @Option(
+        names = {"--debounce"},
+        description = "合并多少毫秒内的连续变化，默认 ${DEFAULT-VALUE}",
+        defaultValue = "300"
+    )
+    private long debounceMillis;
+    
+    private final AgentContextService agentContextService = new AgentContextService();
+    // Last parsed technical context per feature directory, so saves that leave it unchanged are skipped
+    private final Map<Path, AgentContextService.PlanData> lastPlans = new HashMap<>();
+    // Context files present after the last sync; edits to these are left alone
+    private Set<Path> knownContextFiles;
+    private Path repoRoot;
+    private Path specsDir;
+    
+    @Override
+    public Integer call() {
+        repoRoot = FeaturePaths.findRepoRoot(Invocation.workingDirectory());
+        if (repoRoot == null) {
+            ConsoleUtils.error("当前目录不在 Specify 项目或 git 仓库中");
+            return 1;
+        }
+        specsDir = repoRoot.resolve("specs");
+        knownContextFiles = AgentContextCommand.existingContextFiles(repoRoot).keySet();
+        
+        try (DebouncedWatcher watcher = new DebouncedWatcher(debounceMillis)) {
+            register(watcher);
+            ConsoleUtils.info("正在监听 " + repoRoot + "，按 Ctrl+C 退出");
+            watcher.run(changed -> {
+                if (changed.stream().anyMatch(Files::isDirectory)) {
+                    register(watcher);                 // New feature or agent directories
+                }
+                sync(changed);
+            });
+        } catch (IOException e) {
+            ConsoleUtils.error("监听失败: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+    
+    /**
+     * Watches the project root, specs/ and each feature directory, every agent folder and
+     * the directories leading to each agent's context file (e.g. .cursor/ and .cursor/rules/)
+     */
+    private void register(DebouncedWatcher watcher) throws IOException {
+        watcher.watch(repoRoot);
+        watcher.watch(specsDir);
+        if (Files.isDirectory(specsDir)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(specsDir, Files::isDirectory)) {
+                for (Path dir : dirs) {
+                    watcher.watch(dir);
+                }
+            }
+        }
+        for (AgentConfig.Agent agent : AgentConfig.getAgents().values()) {
+            watcher.watch(repoRoot.resolve(agent.getFolder()));
+            Path contextDir = repoRoot.resolve(agent.getContextFile()).getParent();
+            for (Path dir = contextDir; dir != null && dir.startsWith(repoRoot) && !dir.equals(repoRoot);
+                 dir = dir.getParent()) {
+                watcher.watch(dir);
+            }
+        }
+    }
+    
+    /**
+     * A changed plan updates every existing context file; a context file that newly appeared
+     * only gets the current feature merged into it. Edits to existing context files, including
+     * this command's own writes, trigger nothing.
+     */
+    private void sync(Set<Path> changed) {
+        Set<Path> plans = new LinkedHashSet<>();
+        Set<Path> contextFiles = new LinkedHashSet<>();
+        Map<Path, String> existing = AgentContextCommand.existingContextFiles(repoRoot);
+        for (Path file : existing.keySet()) {
+            if (!knownContextFiles.contains(file)) {
+                contextFiles.add(file);
+            }
+        }
+        knownContextFiles = existing.keySet();
+        for (Path path : changed) {
+            Path parent = path.getParent();
+            if (path.getFileName() != null && path.getFileName().toString().equals("plan.md")
+                && parent != null && specsDir.equals(parent.getParent())) {
+                plans.add(parent);
+            } else if (specsDir.equals(parent) && Files.isDirectory(path)) {
+                plans.add(path);                        // New or renamed feature directory
+            }
+        }
+        if (plans.isEmpty() && contextFiles.isEmpty()) {
+            return;
+        }
+        
+        FeaturePaths current;
+        try {
+            current = FeaturePaths.resolve(repoRoot, Invocation.getenv(FeaturePaths.ENV_FEATURE));
+        } catch (IOException e) {
+            ConsoleUtils.error("无法确定当前功能: " + e.getMessage());
+            return;
+        }
+        
+        Set<Path> updated = new LinkedHashSet<>();
+        for (Path featureDir : plans) {
+            Path plan = featureDir.resolve("plan.md");
+            if (!Files.isRegularFile(plan)) {
+                continue;
+            }
+            AgentContextService.PlanData data = parse(plan);
+            if (data == null || data.equals(lastPlans.put(featureDir, data))) {
+                continue;
+            }
+            String branch = featureDir.equals(current.getFeatureDir())
+                ? current.getBranch()
+                : featureDir.getFileName().toString();
+            ConsoleUtils.info("检测到 " + repoRoot.relativize(plan) + " 变化");
+            update(existing, data, branch);
+            updated.addAll(existing.keySet());
+        }
+        
+        contextFiles.removeAll(updated);
+        if (!contextFiles.isEmpty() && Files.isRegularFile(current.getImplPlan())) {
+            AgentContextService.PlanData data = parse(current.getImplPlan());
+            if (data != null) {
+                Map<Path, String> targets = new LinkedHashMap<>();
+                contextFiles.forEach(file -> targets.put(file, existing.get(file)));
+                update(targets, data, current.getBranch());
+            }
+        }
+    }
+    
+    private AgentContextService.PlanData parse(Path plan) {
+        try {
+            return agentContextService.parsePlan(plan);
+        } catch (IOException e) {
+            ConsoleUtils.error("解析 " + plan + " 失败: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private void update(Map<Path, String> targets, AgentContextService.PlanData data, String branch) {
+        String projectName = repoRoot.getFileName() != null ? repoRoot.getFileName().toString() : repoRoot.toString();
+        String date = LocalDate.now().toString();
+        Path template = repoRoot.resolve(TEMPLATE);
+        for (Map.Entry<Path, String> target : targets.entrySet()) {
+            Path file = target.getKey();
+            String relative = repoRoot.relativize(file).toString();
+            try {
+                AgentContextService.Result result = agentContextService.update(
+                    file, data, branch, projectName, date, template);
+                if (result != AgentContextService.Result.UNCHANGED) {
+                    ConsoleUtils.success(AgentContextCommand.describe(result) + target.getValue() + " 上下文文件: " + relative);
+                }
+            } catch (IOException e) {
+                ConsoleUtils.error("更新 " + target.getValue() + " 上下文文件失败: " + e.getMessage());
+            }
+        }
+    }
+}
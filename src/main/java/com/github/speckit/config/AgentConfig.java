@@ -1,166 +1,169 @@
 package com.github.speckit.config;
 
+// 导入当前调用的工作目录和环境变量
+import com.github.speckit.utils.Invocation;
+
+// 导入 Java IO 类
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+// 导入 Java NIO 文件类
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 // 导入 Java 集合类
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 代理配置类，对应 Python 版本的 AGENT_CONFIG 字典
+ * 代理列表来自资源文件 META-INF/spec-kit/agents.tsv，用户级 agents.tsv 可以新增或覆盖代理；
+ * 首次查询时才解析并按用户级文件路径缓存，之后按键和目录都是 O(1) 查找
  * Agent configuration matching Python AGENT_CONFIG dictionary
  */
 public class AgentConfig {
 
+    // 内置代理列表资源
+    static final String RESOURCE = "META-INF/spec-kit/agents.tsv";
+    // 用户级代理列表路径的环境变量
+    public static final String ENV_AGENTS_FILE = "SPECIFY_AGENTS_FILE";
+
     /**
      * 代理信息内部类，封装单个代理的配置信息
      */
     public static class Agent {
+        private final String key;                            // 代理键，如 claude
         private final String name;                           // 代理显示名称
         private final String folder;                         // 代理配置文件夹路径
+        private final String contextFile;                    // 代理上下文文件路径（相对项目根目录）
         private final String installUrl;                     // 安装文档 URL（可为空）
         private final boolean requiresCli;                   // 是否需要 CLI 工具
 
         /**
          * 构造函数，创建代理配置实例
+         * @param key 代理键
          * @param name 代理显示名称
          * @param folder 配置文件夹路径
+         * @param contextFile 上下文文件路径，多个代理可以共用同一文件
          * @param installUrl 安装文档 URL
          * @param requiresCli 是否需要 CLI 工具
          */
-        public Agent(String name, String folder, String installUrl, boolean requiresCli) {
+        public Agent(String key, String name, String folder, String contextFile, String installUrl,
+                     boolean requiresCli) {
+            this.key = key;                                  // 设置代理键
             this.name = name;                                // 设置代理名称
             this.folder = folder;                            // 设置文件夹路径
+            this.contextFile = contextFile;                  // 设置上下文文件路径
             this.installUrl = installUrl;                    // 设置安装 URL
             this.requiresCli = requiresCli;                  // 设置是否需要 CLI
         }
 
         // Getter 方法，获取代理属性
+        public String getKey() { return key; }              // 获取代理键
         public String getName() { return name; }            // 获取代理名称
         public String getFolder() { return folder; }        // 获取文件夹路径
+        public String getContextFile() { return contextFile; } // 获取上下文文件路径
         public String getInstallUrl() { return installUrl; } // 获取安装 URL
         public boolean requiresCli() { return requiresCli; } // 获取是否需要 CLI
     }
 
-    // 静态常量，存储所有可用的代理配置
-    public static final Map<String, Agent> AGENTS;
-
-    // 静态初始化块，配置所有支持的代理
-    static {
-        Map<String, Agent> agents = new LinkedHashMap<>();  // 使用 LinkedHashMap 保持插入顺序
-
-        // GitHub Copilot 配置
-        agents.put("copilot", new Agent(
-            "GitHub Copilot",                                // 显示名称
-            ".github/",                                      // 配置文件夹
-            null,                                            // 无需额外安装文档
-            false                                            // 不需要独立 CLI
-        ));
-
-        // Claude Code 配置
-        agents.put("claude", new Agent(
-            "Claude Code",                                   // 显示名称
-            ".claude/",                                      // 配置文件夹
-            "https://docs.anthropic.com/en/docs/claude-code/setup",  // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Gemini CLI 配置
-        agents.put("gemini", new Agent(
-            "Gemini CLI",                                    // 显示名称
-            ".gemini/",                                      // 配置文件夹
-            "https://github.com/google-gemini/gemini-cli",  // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Cursor 配置
-        agents.put("cursor-agent", new Agent(
-            "Cursor",                                        // 显示名称
-            ".cursor/",                                      // 配置文件夹
-            null,                                            // 无需额外安装文档
-            false                                            // 不需要独立 CLI
-        ));
-
-        // Qwen Code 配置
-        agents.put("qwen", new Agent(
-            "Qwen Code",                                     // 显示名称
-            ".qwen/",                                        // 配置文件夹
-            "https://github.com/QwenLM/qwen-code",          // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // opencode 配置
-        agents.put("opencode", new Agent(
-            "opencode",                                      // 显示名称
-            ".opencode/",                                    // 配置文件夹
-            "https://opencode.ai",                          // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Codex CLI 配置
-        agents.put("codex", new Agent(
-            "Codex CLI",                                     // 显示名称
-            ".codex/",                                       // 配置文件夹
-            "https://github.com/openai/codex",              // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Windsurf 配置
-        agents.put("windsurf", new Agent(
-            "Windsurf",                                      // 显示名称
-            ".windsurf/",                                    // 配置文件夹
-            null,                                            // 无需额外安装文档
-            false                                            // 不需要独立 CLI
-        ));
-
-        // Kilo Code 配置
-        agents.put("kilocode", new Agent(
-            "Kilo Code",                                     // 显示名称
-            ".kilocode/",                                    // 配置文件夹
-            null,                                            // 无需额外安装文档
-            false                                            // 不需要独立 CLI
-        ));
-
-        // Auggie CLI 配置
-        agents.put("auggie", new Agent(
-            "Auggie CLI",                                    // 显示名称
-            ".augment/",                                     // 配置文件夹
-            "https://docs.augmentcode.com/cli/setup-auggie/install-auggie-cli",  // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // CodeBuddy 配置
-        agents.put("codebuddy", new Agent(
-            "CodeBuddy",                                     // 显示名称
-            ".codebuddy/",                                   // 配置文件夹
-            "https://www.codebuddy.ai/cli",                 // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Roo Code 配置
-        agents.put("roo", new Agent(
-            "Roo Code",                                      // 显示名称
-            ".roo/",                                         // 配置文件夹
-            null,                                            // 无需额外安装文档
-            false                                            // 不需要独立 CLI
-        ));
-
-        // Amazon Q Developer CLI 配置
-        agents.put("q", new Agent(
-            "Amazon Q Developer CLI",                        // 显示名称
-            ".amazonq/",                                     // 配置文件夹
-            "https://aws.amazon.com/developer/learning/q-developer-cli/",  // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        // Amp 配置
-        agents.put("amp", new Agent(
-            "Amp",                                           // 显示名称
-            ".agents/",                                      // 配置文件夹
-            "https://ampcode.com/manual#install",           // 安装文档
-            true                                             // 需要 CLI 工具
-        ));
-
-        AGENTS = Map.copyOf(agents);                         // 创建不可变的代理映射
+    /**
+     * 延迟加载的内置代理列表，类首次被访问时才解析资源文件（由 JVM 类初始化保证线程安全）
+     */
+    private static final class Builtin {
+        static final Map<String, Agent> AGENTS;             // 按键索引，保持文件中的顺序
+
+        static {
+            Map<String, Agent> agents = new LinkedHashMap<>();
+            try (InputStream in = AgentConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("缺少内置代理列表资源: " + RESOURCE);
+                }
+                parse(new InputStreamReader(in, StandardCharsets.UTF_8), RESOURCE, agents);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            AGENTS = Collections.unmodifiableMap(agents);
+        }
+    }
+
+    /**
+     * 内置代理叠加某个用户级文件后的注册表，记录文件的修改时间和大小用于判断是否过期
+     */
+    private static final class Registry {
+        final Map<String, Agent> byKey;                      // 按键索引，保持文件中的顺序
+        final Map<String, Agent> byFolder;                   // 按配置文件夹索引
+        final String stamp;                                  // 用户级文件的修改时间和大小，不存在时为空串
+
+        Registry(Map<String, Agent> byKey, Map<String, Agent> byFolder, String stamp) {
+            this.byKey = byKey;
+            this.byFolder = byFolder;
+            this.stamp = stamp;
+        }
+    }
+
+    // 按用户级文件路径缓存注册表：守护进程中每个请求按客户端的环境变量定位文件
+    private static final Map<Path, Registry> REGISTRIES = new ConcurrentHashMap<>();
+
+    /**
+     * 当前调用对应的注册表，用户级文件变化后重新解析
+     */
+    private static Registry registry() {
+        Path userFile = userAgentsFile();
+        String stamp = stamp(userFile);
+        Registry registry = REGISTRIES.get(userFile);
+        if (registry == null || !registry.stamp.equals(stamp)) {
+            registry = load(userFile, stamp);
+            REGISTRIES.put(userFile, registry);
+        }
+        return registry;
+    }
+
+    private static Registry load(Path userFile, String stamp) {
+        Map<String, Agent> agents = new LinkedHashMap<>(Builtin.AGENTS);
+
+        // 用户级文件中的同名代理覆盖内置配置，新代理追加在末尾
+        if (!stamp.isEmpty()) {
+            try (Reader reader = Files.newBufferedReader(userFile, StandardCharsets.UTF_8)) {
+                parse(reader, userFile.toString(), agents);
+            } catch (IOException e) {
+                System.err.println("警告: 无法读取代理列表 " + userFile + ": " + e.getMessage());
+            }
+        }
+
+        Map<String, Agent> folders = new HashMap<>();
+        for (Agent agent : agents.values()) {
+            folders.putIfAbsent(normalizeFolder(agent.getFolder()), agent);
+        }
+        // 创建不可变的代理映射，保持插入顺序
+        return new Registry(Collections.unmodifiableMap(agents), Collections.unmodifiableMap(folders), stamp);
+    }
+
+    // 文件的修改时间和大小，不是普通文件或无法读取时返回空串
+    private static String stamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes.lastModifiedTime().toMillis() + ":" + attributes.size() : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * 获取所有代理，顺序与 agents.tsv 一致
+     * @return 代理键到代理配置的不可变映射
+     */
+    public static Map<String, Agent> getAgents() {
+        return registry().byKey;
     }
 
     /**
@@ -169,7 +172,16 @@ public class AgentConfig {
      * @return 对应的代理配置，如果不存在则返回 null
      */
     public static Agent getAgent(String key) {
-        return AGENTS.get(key);                              // 从映射中获取代理配置
+        return registry().byKey.get(key);                     // 从映射中获取代理配置
+    }
+
+    /**
+     * 根据配置文件夹获取代理配置
+     * @param folder 配置文件夹，如 .claude 或 .claude/
+     * @return 对应的代理配置，如果不存在则返回 null
+     */
+    public static Agent getAgentByFolder(String folder) {
+        return registry().byFolder.get(normalizeFolder(folder));
     }
 
     /**
@@ -177,7 +189,53 @@ public class AgentConfig {
      * @return 代理键集合
      */
     public static Set<String> getAgentKeys() {
-        return AGENTS.keySet();                              // 返回所有代理键
+        return registry().byKey.keySet();                     // 返回所有代理键
+    }
+
+    /**
+     * 用户级代理列表路径：SPECIFY_AGENTS_FILE，否则为配置目录下的 specify/agents.tsv
+     * 环境变量取自当前调用，守护进程中即客户端的值
+     * @return 文件路径，可能不存在
+     */
+    public static Path userAgentsFile() {
+        String override = Invocation.getenv(ENV_AGENTS_FILE);
+        if (override != null && !override.isBlank()) {
+            return Invocation.workingDirectory().resolve(override);
+        }
+        String xdg = Invocation.getenv("XDG_CONFIG_HOME");
+        if (xdg != null && !xdg.isBlank()) {
+            return Paths.get(xdg, "specify", "agents.tsv");
+        }
+        return Paths.get(System.getProperty("user.home"), ".config", "specify", "agents.tsv");
+    }
+
+    /**
+     * 解析 agents.tsv：每行 key、name、folder、context_file、install_url、requires_cli 六列，以制表符分隔
+     * 空行和 # 开头的行被忽略，install_url 为 - 表示没有安装文档
+     */
+    private static void parse(Reader source, String origin, Map<String, Agent> agents) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 6 || fields[0].isEmpty() || fields[1].isEmpty() || fields[3].isEmpty()) {
+                System.err.println("警告: 忽略 " + origin + " 第 " + lineNumber + " 行，需要 6 个以制表符分隔的字段");
+                continue;
+            }
+            String installUrl = fields[4].isEmpty() || fields[4].equals("-") ? null : fields[4];
+            agents.put(fields[0], new Agent(fields[0], fields[1], fields[2], fields[3], installUrl,
+                Boolean.parseBoolean(fields[5])));
+        }
+    }
+
+    // 统一文件夹写法，.claude 与 .claude/ 视为同一目录
+    private static String normalizeFolder(String folder) {
+        return folder.endsWith("/") ? folder : folder + "/";
     }
 
     // 脚本类型选择映射，用于用户选择脚本类型
@@ -185,4 +243,4 @@ public class AgentConfig {
         "sh", "POSIX Shell (bash/zsh)",                     // Shell 脚本类型
         "ps", "PowerShell"                                  // PowerShell 脚本类型
     );
-}
\ No newline at end of file
+}
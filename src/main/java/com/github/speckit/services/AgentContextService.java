@@ -0,0 +1,255 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps agent context files (CLAUDE.md, AGENTS.md, ...) in sync with a feature's plan.md.
+ * Port of scripts/bash/update-agent-context.sh: the plan is parsed once and each file is
+ * rewritten in a single pass, then moved into place atomically.
+ */
+public class AgentContextService {
+    
+    private static final String TECH_HEADING = "## Active Technologies";
+    private static final String CHANGES_HEADING = "## Recent Changes";
+    private static final int KEPT_CHANGES = 2;
+    private static final Pattern LAST_UPDATED = Pattern.compile("\\*\\*Last updated\\*\\*:.*\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    
+    /**
+     * What {@link #update} did to a context file
+     */
+    public enum Result { CREATED, UPDATED, UNCHANGED }
+    
+    /**
+     * Technical context fields of a plan; each is empty when missing, N/A or still NEEDS CLARIFICATION
+     */
+    public static class PlanData {
+        private final String language;
+        private final String framework;
+        private final String database;
+        private final String projectType;
+        
+        PlanData(String language, String framework, String database, String projectType) {
+            this.language = language;
+            this.framework = framework;
+            this.database = database;
+            this.projectType = projectType;
+        }
+        
+        public String getLanguage() { return language; }
+        public String getFramework() { return framework; }
+        public String getDatabase() { return database; }
+        public String getProjectType() { return projectType; }
+        
+        /**
+         * Language and framework joined with " + ", or empty when neither is known
+         */
+        public String getTechStack() {
+            if (!language.isEmpty() && !framework.isEmpty()) {
+                return language + " + " + framework;
+            }
+            return language.isEmpty() ? framework : language;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PlanData)) {
+                return false;
+            }
+            PlanData that = (PlanData) other;
+            return language.equals(that.language) && framework.equals(that.framework)
+                && database.equals(that.database) && projectType.equals(that.projectType);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(language, framework, database, projectType);
+        }
+    }
+    
+    /**
+     * Reads the plan once and extracts the **Field**: value lines the context files use
+     */
+    public PlanData parsePlan(Path plan) throws IOException {
+        List<String> lines = Files.readAllLines(plan, StandardCharsets.UTF_8);
+        return new PlanData(
+            field(lines, "Language/Version"),
+            field(lines, "Primary Dependencies"),
+            field(lines, "Storage"),
+            field(lines, "Project Type"));
+    }
+    
+    /**
+     * Creates the file from the template when missing, otherwise merges the plan into it.
+     * A merge that changes nothing leaves the file untouched.
+     */
+    public Result update(Path file, PlanData plan, String branch, String projectName, String date,
+                         Path template) throws IOException {
+        String content;
+        boolean created = !Files.exists(file);
+        if (created) {
+            if (!Files.isRegularFile(template)) {
+                throw new IOException("Template not found at " + template);
+            }
+            content = fromTemplate(Files.readString(template, StandardCharsets.UTF_8), plan, branch,
+                projectName, date);
+        } else {
+            String existing = Files.readString(file, StandardCharsets.UTF_8);
+            // Keeps the file's own line endings; the script matched nothing on CRLF lines
+            String separator = existing.contains("\r\n") ? "\r\n" : "\n";
+            content = merge(existing.lines().toList(), plan, branch, date, separator);
+            if (content.equals(existing)) {
+                return Result.UNCHANGED;
+            }
+        }
+        
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "." + file.getFileName(), ".tmp");
+        try {
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return created ? Result.CREATED : Result.UPDATED;
+    }
+    
+    private static String fromTemplate(String template, PlanData plan, String branch, String projectName,
+                                       String date) {
+        String stack = plan.getTechStack();
+        String structure = plan.getProjectType().contains("web")
+            ? "backend/\nfrontend/\ntests/"
+            : "src/\ntests/";
+        return template
+            .replace("[PROJECT NAME]", projectName)
+            .replace("[DATE]", date)
+            .replace("[EXTRACTED FROM ALL PLAN.MD FILES]", stack.isEmpty()
+                ? "- (" + branch + ")"
+                : "- " + stack + " (" + branch + ")")
+            .replace("[ACTUAL STRUCTURE FROM PLANS]", structure)
+            .replace("[ONLY COMMANDS FOR ACTIVE TECHNOLOGIES]", commandsFor(plan.getLanguage()))
+            .replace("[LANGUAGE-SPECIFIC, ONLY FOR LANGUAGES IN USE]",
+                plan.getLanguage() + ": Follow standard conventions")
+            .replace("[LAST 3 FEATURES AND WHAT THEY ADDED]", stack.isEmpty()
+                ? "- " + branch + ": Added"
+                : "- " + branch + ": Added " + stack);
+    }
+    
+    /**
+     * Adds new technologies to Active Technologies, prepends the feature to Recent Changes
+     * (keeping the two newest other entries), refreshes the Last updated date and appends
+     * whichever of the two sections is missing. Lines are joined with {@code separator}.
+     */
+    private static String merge(List<String> lines, PlanData plan, String branch, String date, String separator) {
+        String joined = String.join("\n", lines);
+        String stack = plan.getTechStack();
+        String database = plan.getDatabase();
+        
+        List<String> techEntries = new ArrayList<>();
+        if (!stack.isEmpty() && !joined.contains(stack)) {
+            techEntries.add("- " + stack + " (" + branch + ")");
+        }
+        if (!database.isEmpty() && !joined.contains(database)) {
+            techEntries.add("- " + database + " (" + branch + ")");
+        }
+        String changeEntry = !stack.isEmpty() ? "- " + branch + ": Added " + stack
+            : !database.isEmpty() ? "- " + branch + ": Added " + database
+            : null;
+        
+        List<String> out = new ArrayList<>(lines.size() + techEntries.size() + 4);
+        boolean hasTech = false;
+        boolean hasChanges = false;
+        boolean inTech = false;
+        boolean inChanges = false;
+        boolean techAdded = false;
+        int keptChanges = 0;
+        
+        for (String line : lines) {
+            boolean heading = line.matches("##\\s.*");
+            if (inTech && (heading || line.isEmpty())) {
+                // New entries go before the first blank line or the next section
+                if (!techAdded) {
+                    out.addAll(techEntries);
+                    techAdded = true;
+                }
+                inTech = !heading;
+            }
+            if (inChanges && heading) {
+                inChanges = false;
+            }
+            
+            if (line.equals(TECH_HEADING)) {
+                out.add(line);
+                hasTech = true;
+                inTech = true;
+            } else if (line.equals(CHANGES_HEADING)) {
+                out.add(line);
+                if (changeEntry != null) {
+                    out.add(changeEntry);
+                }
+                hasChanges = true;
+                inChanges = true;
+            } else if (inChanges && line.startsWith("- ")) {
+                // A rerun for the same feature replaces its entry instead of repeating it
+                if (!line.equals(changeEntry) && keptChanges++ < KEPT_CHANGES) {
+                    out.add(line);
+                }
+            } else if (LAST_UPDATED.matcher(line).find()) {
+                out.add(DATE.matcher(line).replaceFirst(date));
+            } else {
+                out.add(line);
+            }
+        }
+        
+        if (inTech && !techAdded) {
+            out.addAll(techEntries);
+        }
+        if (!hasTech && !techEntries.isEmpty()) {
+            out.add("");
+            out.add(TECH_HEADING);
+            out.addAll(techEntries);
+        }
+        if (!hasChanges && changeEntry != null) {
+            out.add("");
+            out.add(CHANGES_HEADING);
+            out.add(changeEntry);
+        }
+        return String.join(separator, out) + separator;
+    }
+    
+    private static String commandsFor(String language) {
+        if (language.contains("Python")) {
+            return "cd src && pytest && ruff check .";
+        }
+        if (language.contains("Rust")) {
+            return "cargo test && cargo clippy";
+        }
+        if (language.contains("JavaScript") || language.contains("TypeScript")) {
+            return "npm test && npm run lint";
+        }
+        return "# Add commands for " + language;
+    }
+    
+    /**
+     * Value of the first "**Field**: value" line, trimmed
+     */
+    private static String field(List<String> lines, String name) {
+        String marker = "**" + name + "**: ";
+        for (String line : lines) {
+            if (line.startsWith(marker)) {
+                String value = line.substring(marker.length()).strip();
+                return value.contains("NEEDS CLARIFICATION") || value.equals("N/A") ? "" : value;
+            }
+        }
+        return "";
+    }
+}
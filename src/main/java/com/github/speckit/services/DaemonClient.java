@@ -0,0 +1,201 @@
+package com.github.speckit.services;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thin client for {@link DaemonServer}: forwards a command line, working directory and
+ * environment over a Unix domain socket and replays the captured output. Kept free of
+ * picocli and the command classes so forwarding does not load them.
+ */
+public final class DaemonClient {
+    
+    public static final String ENV_SOCKET = "SPECIFY_DAEMON_SOCKET";
+    public static final String ENV_DISABLE = "SPECIFY_NO_DAEMON";
+    
+    /**
+     * Non-interactive commands that only depend on the working directory and environment
+     */
+    public static final Set<String> FORWARDED = Set.of("feature", "prereq", "agent-context");
+    
+    /**
+     * Options that keep a command local: git fetch needs the caller's credentials, ssh agent and terminal
+     */
+    private static final Set<String> LOCAL_OPTIONS = Set.of("--fetch");
+    
+    static final int VERSION = 2;
+    static final byte OP_RUN = 1;
+    static final byte OP_STOP = 2;
+    static final byte OP_PING = 3;
+    
+    // Output frames of a reply, in the order the command wrote them
+    static final byte STREAM_END = 0;
+    static final byte STREAM_OUT = 1;
+    static final byte STREAM_ERR = 2;
+    
+    private DaemonClient() {
+    }
+    
+    /**
+     * Socket path from SPECIFY_DAEMON_SOCKET, else daemon.sock in the cache directory
+     */
+    public static Path socketPath() {
+        String override = System.getenv(ENV_SOCKET);
+        if (override != null && !override.isBlank()) {
+            return Paths.get(override);
+        }
+        return TemplateCacheService.defaultCacheDir().resolve("daemon.sock");
+    }
+    
+    /**
+     * Runs the command in the daemon when one is listening and the command is forwarded
+     *
+     * @return the exit code, or null when the command should run in this process
+     */
+    public static Integer forward(String[] args) {
+        String disabled = System.getenv(ENV_DISABLE);
+        if (disabled != null && !disabled.isEmpty() && !"0".equals(disabled)) {
+            return null;
+        }
+        if (!isForwarded(args)) {
+            return null;
+        }
+        Path socket = socketPath();
+        if (!Files.exists(socket)) {
+            return null;
+        }
+        
+        SocketChannel channel;
+        try {
+            channel = connect(socket);
+        } catch (IOException e) {
+            return null;                                // Stale socket: run locally
+        }
+        // From here on the daemon may already be running the command, so never fall back
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(VERSION);
+            out.writeByte(OP_RUN);
+            writeString(out, Paths.get("").toAbsolutePath().toString());
+            out.writeBoolean(System.console() != null);
+            Map<String, String> env = System.getenv();
+            out.writeInt(env.size());
+            for (Map.Entry<String, String> entry : env.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+            out.writeInt(args.length);
+            for (String arg : args) {
+                writeString(out, arg);
+            }
+            out.flush();
+            
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            int exitCode = in.readInt();
+            byte stream;
+            while ((stream = in.readByte()) != STREAM_END) {
+                PrintStream target = stream == STREAM_ERR ? System.err : System.out;
+                target.write(readBytes(in));
+                target.flush();
+            }
+            return exitCode;
+        } catch (EOFException e) {
+            System.err.println("Error: specify daemon closed the connection before replying"
+                + " (request timed out or daemon stopped)");
+            return 1;
+        } catch (IOException e) {
+            System.err.println("Error: specify daemon failed: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Whether the daemon runs this command line: a forwarded command without local-only options
+     */
+    public static boolean isForwarded(String[] args) {
+        String command = Arrays.stream(args).filter(arg -> !arg.startsWith("-")).findFirst().orElse(null);
+        return command != null && FORWARDED.contains(command)
+            && Arrays.stream(args).noneMatch(arg -> LOCAL_OPTIONS.contains(arg.split("=", 2)[0]));
+    }
+    
+    /**
+     * @return the daemon's process id, or null when none is listening
+     */
+    public static Long ping() {
+        try (SocketChannel channel = connect(socketPath())) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeInt(VERSION);
+            out.writeByte(OP_PING);
+            out.flush();
+            return new DataInputStream(Channels.newInputStream(channel)).readLong();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Asks a running daemon to exit
+     *
+     * @return false when none is listening
+     */
+    public static boolean stop() {
+        try (SocketChannel channel = connect(socketPath())) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeInt(VERSION);
+            out.writeByte(OP_STOP);
+            out.flush();
+            new DataInputStream(Channels.newInputStream(channel)).readInt();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    static SocketChannel connect(Path socket) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+    
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Connection closed mid-frame");
+        }
+        return bytes;
+    }
+}
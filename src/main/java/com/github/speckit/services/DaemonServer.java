@@ -0,0 +1,297 @@
+package com.github.speckit.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps a warm JVM listening on a Unix domain socket and runs forwarded commands in it.
+ * Requests are served one at a time because commands write to System.out and System.err,
+ * which are swapped for a per-request capture while a command runs. A request that does
+ * not finish within the request timeout stops the daemon: its handler may still hold the
+ * swapped streams, and once the socket is gone clients run commands locally again.
+ */
+public class DaemonServer {
+    
+    /**
+     * Runs one forwarded command line with the client's working directory and environment
+     */
+    public interface Handler {
+        int handle(Path workingDirectory, Map<String, String> environment, boolean colors, String[] args)
+            throws Exception;
+    }
+    
+    private final Path socket;
+    private final Handler handler;
+    private final long idleMillis;
+    private final long requestMillis;
+    private volatile long lastActivity;
+    private ServerSocketChannel server;
+    
+    /**
+     * @param idleMillis exit after this long without requests; 0 to run until stopped
+     * @param requestMillis longest time one request may take, from accept to reply
+     */
+    public DaemonServer(Path socket, Handler handler, long idleMillis, long requestMillis) {
+        this.socket = socket.toAbsolutePath();
+        this.handler = handler;
+        this.idleMillis = idleMillis;
+        this.requestMillis = requestMillis;
+    }
+    
+    /**
+     * Binds the socket, replacing one left behind by a daemon that was killed
+     *
+     * @throws IOException when another daemon already listens on the socket
+     */
+    public void bind() throws IOException {
+        if (Files.exists(socket)) {
+            if (isListening(socket)) {
+                throw new IOException("A daemon is already listening on " + socket);
+            }
+            Files.delete(socket);
+        }
+        Files.createDirectories(socket.getParent());
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            // Forwarded commands run with this user's rights, so only the owner may connect
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+        }
+    }
+    
+    /**
+     * Serves requests until stopped or idle, then removes the socket
+     *
+     * @throws IOException when a request timed out and the daemon gave up
+     */
+    public void serve() throws IOException {
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "specify-daemon-idle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastActivity = System.currentTimeMillis();
+        if (idleMillis > 0) {
+            watchdog.scheduleWithFixedDelay(() -> {
+                if (System.currentTimeMillis() - lastActivity >= idleMillis) {
+                    close(server);
+                }
+            }, 1, 1, TimeUnit.SECONDS);
+        }
+        
+        PrintStream daemonOut = System.out;
+        PrintStream daemonErr = System.err;
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "specify-daemon-request");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try (ServerSocketChannel listening = server) {
+            while (listening.isOpen()) {
+                SocketChannel client;
+                try {
+                    client = listening.accept();
+                } catch (AsynchronousCloseException e) {
+                    break;
+                }
+                // Closing the client on timeout also unblocks a worker stuck reading or writing it
+                try (client) {
+                    Future<Boolean> request = worker.submit(() -> serve(client));
+                    try {
+                        if (!request.get(requestMillis, TimeUnit.MILLISECONDS)) {
+                            break;
+                        }
+                    } catch (TimeoutException e) {
+                        request.cancel(true);
+                        System.setOut(daemonOut);         // Take the streams back from the stuck handler
+                        System.setErr(daemonErr);
+                        throw new IOException("request took longer than " + requestMillis + " ms");
+                    } catch (ExecutionException e) {
+                        // A client that went away only loses its own response
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                lastActivity = System.currentTimeMillis();
+            }
+        } finally {
+            watchdog.shutdownNow();
+            worker.shutdownNow();
+            Files.deleteIfExists(socket);
+        }
+    }
+    
+    /**
+     * Handles one connection
+     *
+     * @return false when the client asked the daemon to stop
+     */
+    private boolean serve(SocketChannel client) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+        int version = in.readInt();
+        byte op = in.readByte();
+        if (version != DaemonClient.VERSION) {
+            Capture capture = new Capture();
+            capture.append(DaemonClient.STREAM_ERR, ("Error: daemon protocol " + DaemonClient.VERSION
+                + " does not match client protocol " + version + "; restart the daemon\n")
+                .getBytes(StandardCharsets.UTF_8));
+            respond(out, 1, capture);
+            return true;
+        }
+        if (op == DaemonClient.OP_PING) {
+            out.writeLong(ProcessHandle.current().pid());
+            out.flush();
+            return true;
+        }
+        if (op == DaemonClient.OP_STOP) {
+            out.writeInt(0);
+            out.flush();
+            return false;
+        }
+        
+        Path workingDirectory = Paths.get(DaemonClient.readString(in));
+        boolean colors = in.readBoolean();
+        int envCount = in.readInt();
+        Map<String, String> environment = new HashMap<>();
+        for (int i = 0; i < envCount; i++) {
+            environment.put(DaemonClient.readString(in), DaemonClient.readString(in));
+        }
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = DaemonClient.readString(in);
+        }
+        
+        Capture capture = new Capture();
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        int exitCode;
+        try {
+            System.setOut(new PrintStream(capture.stream(DaemonClient.STREAM_OUT), true, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(capture.stream(DaemonClient.STREAM_ERR), true, StandardCharsets.UTF_8));
+            exitCode = handler.handle(workingDirectory, environment, colors, args);
+        } catch (Exception e) {
+            System.err.println("Error: " + e);
+            exitCode = 1;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+        respond(out, exitCode, capture);
+        return true;
+    }
+    
+    /**
+     * Reply: the exit code, then (stream, length, bytes) frames in write order, then STREAM_END
+     */
+    private static void respond(DataOutputStream out, int exitCode, Capture capture) throws IOException {
+        out.writeInt(exitCode);
+        capture.writeTo(out);
+        out.writeByte(DaemonClient.STREAM_END);
+        out.flush();
+    }
+    
+    /**
+     * Collects a command's stdout and stderr as one sequence of frames, so the client can
+     * replay them interleaved as a local run would print them
+     */
+    private static final class Capture {
+        private final List<byte[]> frames = new ArrayList<>();
+        private final List<Byte> streams = new ArrayList<>();
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private byte pendingStream = DaemonClient.STREAM_END;
+        
+        OutputStream stream(byte stream) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    append(stream, new byte[] {(byte) b});
+                }
+                
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    append(stream, bytes, offset, length);
+                }
+            };
+        }
+        
+        void append(byte stream, byte[] bytes) {
+            append(stream, bytes, 0, bytes.length);
+        }
+        
+        // Consecutive writes to the same stream share one frame
+        synchronized void append(byte stream, byte[] bytes, int offset, int length) {
+            if (stream != pendingStream) {
+                endFrame();
+                pendingStream = stream;
+            }
+            pending.write(bytes, offset, length);
+        }
+        
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            endFrame();
+            for (int i = 0; i < frames.size(); i++) {
+                out.writeByte(streams.get(i));
+                out.writeInt(frames.get(i).length);
+                out.write(frames.get(i));
+            }
+        }
+        
+        private void endFrame() {
+            if (pending.size() > 0) {
+                frames.add(pending.toByteArray());
+                streams.add(pendingStream);
+                pending.reset();
+            }
+        }
+    }
+    
+    private static boolean isListening(Path socket) {
+        try (SocketChannel channel = DaemonClient.connect(socket)) {
+            return channel.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private static void close(ServerSocketChannel server) {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.speckit.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a set of directories and reports changed paths in batches: events arriving
+ * within the debounce interval of each other are delivered together, so an editor's
+ * save (temp file, rename, chmod) or a checkout touching many files triggers one
+ * callback. Blocks in {@link WatchService#take()} while idle.
+ */
+public class DebouncedWatcher implements Closeable {
+    
+    /**
+     * Receives the paths created, modified or deleted since the last batch. After an
+     * event overflow the watched directory itself is reported, meaning "rescan".
+     */
+    public interface Listener {
+        void changed(Set<Path> paths) throws IOException;
+    }
+    
+    // A steady stream of events still gets flushed after this many debounce intervals
+    private static final int MAX_DELAY_INTERVALS = 10;
+    
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Set<Path> watched = new HashSet<>();
+    private final long debounceMillis;
+    
+    public DebouncedWatcher(long debounceMillis) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+    }
+    
+    /**
+     * Starts watching a directory's direct entries; does nothing when it is missing or already watched
+     */
+    public void watch(Path dir) throws IOException {
+        Path normalized = dir.toAbsolutePath().normalize();
+        if (!Files.isDirectory(normalized) || watched.contains(normalized)) {
+            return;
+        }
+        WatchKey key = normalized.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        keys.put(key, normalized);
+        watched.add(normalized);
+    }
+    
+    /**
+     * Delivers batches until the watcher is closed or the thread is interrupted
+     */
+    public void run(Listener listener) throws IOException, InterruptedException {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                long deadline = System.currentTimeMillis() + debounceMillis * MAX_DELAY_INTERVALS;
+                WatchKey key;
+                while (System.currentTimeMillis() < deadline
+                    && (key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty()) {
+                    listener.changed(changed);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed from another thread
+        }
+    }
+    
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(dir);
+            } else {
+                changed.add(dir.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset() && dir != null) {
+            // Directory deleted; watch() adds it again if it comes back
+            keys.remove(key);
+            watched.remove(dir);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Service for templates bundled into the jar or native image at build time.
+ * The embedded-templates build profile copies the packaged release zips into
+ * {@code META-INF/spec-kit/templates/} together with {@code templates.index},
+ * a properties file mapping {@code <agent>-<script>} to its zip and recording
+ * the release version, so lookups never scan or download anything.
+ */
+public class EmbeddedTemplateService {
+    
+    static final String RESOURCE_DIR = "META-INF/spec-kit/templates/";
+    private static final String INDEX_RESOURCE = RESOURCE_DIR + "templates.index";
+    private static final String VERSION_KEY = "version";
+    
+    private volatile Properties index;
+    
+    /**
+     * True when this build carries a template for the agent/script pair
+     */
+    public boolean isAvailable(String agent, String script) {
+        return index().containsKey(key(agent, script));
+    }
+    
+    /**
+     * @return release version of the bundled templates, or null when none are bundled
+     */
+    public String getVersion() {
+        return index().getProperty(VERSION_KEY);
+    }
+    
+    /**
+     * Opens the bundled template zip as a stream
+     */
+    public InputStream open(String agent, String script) throws IOException {
+        String file = index().getProperty(key(agent, script));
+        if (file == null) {
+            throw new IOException("No embedded template for " + key(agent, script));
+        }
+        InputStream in = EmbeddedTemplateService.class.getClassLoader().getResourceAsStream(RESOURCE_DIR + file);
+        if (in == null) {
+            throw new IOException("Embedded template missing from build: " + file);
+        }
+        return in;
+    }
+    
+    /**
+     * Copies the bundled template zip into a directory, for callers that need random access
+     */
+    public Path copyTo(String agent, String script, Path dir) throws IOException {
+        Path target = dir.resolve(index().getProperty(key(agent, script)));
+        try (InputStream in = open(agent, script)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+    
+    private Properties index() {
+        Properties loaded = index;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = index;
+                if (loaded == null) {
+                    loaded = new Properties();
+                    try (InputStream in = EmbeddedTemplateService.class.getClassLoader()
+                            .getResourceAsStream(INDEX_RESOURCE)) {
+                        if (in != null) {
+                            loaded.load(in);
+                        }
+                    } catch (IOException e) {
+                        // A damaged index behaves like a build without embedded templates
+                        loaded.clear();
+                    }
+                    index = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    private static String key(String agent, String script) {
+        return agent + "-" + script;
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tries sources in order with hedging: the next source is started as soon as the
+ * current one fails or has not finished within the hedge delay, and the first
+ * successful result wins. Each attempt reports progress on its own; only the attempt
+ * that is furthest along reaches the caller's listener, and the winner's final count
+ * is reported last.
+ */
+class FallbackTemplateSource implements TemplateSource {
+    
+    private final List<TemplateSource> sources;
+    private final long hedgeMillis;
+    
+    FallbackTemplateSource(List<TemplateSource> sources, long hedgeMillis) {
+        this.sources = List.copyOf(sources);
+        this.hedgeMillis = hedgeMillis;
+    }
+    
+    @Override
+    public String getName() {
+        List<String> names = new ArrayList<>();
+        for (TemplateSource source : sources) {
+            names.add(source.getName());
+        }
+        return String.join(" > ", names);
+    }
+    
+    @Override
+    public TemplateCacheService.CachedTemplate fetch(String agent, String scriptType,
+                                                     GithubService.ProgressListener listener) throws IOException {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "specify-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<TemplateCacheService.CachedTemplate> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<TemplateCacheService.CachedTemplate>, LeadingProgress.Attempt> running = new HashMap<>();
+        LeadingProgress progress = listener != null ? new LeadingProgress(listener) : null;
+        IOException failure = null;
+        
+        try {
+            int started = 0;
+            int finished = 0;
+            while (finished < sources.size()) {
+                if (started == finished) {
+                    // Nothing in flight: start the next source immediately
+                    start(completion, running, sources.get(started++), agent, scriptType, progress);
+                }
+                
+                Future<TemplateCacheService.CachedTemplate> done = started < sources.size()
+                    ? completion.poll(hedgeMillis, TimeUnit.MILLISECONDS)
+                    : completion.take();
+                if (done == null) {
+                    // Current sources are slow: hedge with the next one
+                    start(completion, running, sources.get(started++), agent, scriptType, progress);
+                    continue;
+                }
+                
+                finished++;
+                LeadingProgress.Attempt attempt = running.get(done);
+                try {
+                    TemplateCacheService.CachedTemplate result = done.get();
+                    if (progress != null) {
+                        progress.finish(attempt);
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (progress != null) {
+                        progress.drop(attempt);
+                    }
+                    IOException cause = e.getCause() instanceof IOException
+                        ? (IOException) e.getCause()
+                        : new IOException(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching template");
+        } finally {
+            for (Future<TemplateCacheService.CachedTemplate> future : running.keySet()) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+    
+    private static void start(CompletionService<TemplateCacheService.CachedTemplate> completion,
+                              Map<Future<TemplateCacheService.CachedTemplate>, LeadingProgress.Attempt> running,
+                              TemplateSource source, String agent, String scriptType, LeadingProgress progress) {
+        LeadingProgress.Attempt attempt = progress != null ? progress.new Attempt() : null;
+        Future<TemplateCacheService.CachedTemplate> future = completion.submit(() -> {
+            try {
+                return source.fetch(agent, scriptType, attempt);
+            } catch (IOException e) {
+                throw new IOException(source.getName() + ": " + e.getMessage(), e);
+            }
+        });
+        running.put(future, attempt);
+    }
+    
+    /**
+     * Forwards the progress of whichever attempt is furthest along, so hedged downloads
+     * do not make the reported bytes jump back and forth between them
+     */
+    private static final class LeadingProgress {
+        
+        private final GithubService.ProgressListener listener;
+        private Attempt leader;
+        private boolean finished;
+        
+        LeadingProgress(GithubService.ProgressListener listener) {
+            this.listener = listener;
+        }
+        
+        synchronized void report(Attempt attempt, long bytesRead, long totalBytes) {
+            attempt.bytesRead = bytesRead;
+            attempt.totalBytes = totalBytes;
+            if (finished) {
+                return;
+            }
+            if (leader == null || leader != attempt && attempt.fraction() > leader.fraction()) {
+                leader = attempt;
+            }
+            if (leader == attempt) {
+                listener.onProgress(bytesRead, totalBytes);
+            }
+        }
+        
+        /**
+         * A failed attempt gives up the lead; the next report from another attempt takes it
+         */
+        synchronized void drop(Attempt attempt) {
+            if (leader == attempt) {
+                leader = null;
+            }
+        }
+        
+        /**
+         * Reports the winner's last count, even when another attempt was leading, and
+         * ignores the cancelled attempts from then on
+         */
+        synchronized void finish(Attempt winner) {
+            finished = true;
+            if (winner.bytesRead >= 0) {
+                listener.onProgress(winner.bytesRead, winner.totalBytes);
+            }
+        }
+        
+        /**
+         * The listener handed to one source
+         */
+        final class Attempt implements GithubService.ProgressListener {
+            
+            private long bytesRead = -1;
+            private long totalBytes = -1;
+            
+            @Override
+            public void onProgress(long bytesRead, long totalBytes) {
+                report(this, bytesRead, totalBytes);
+            }
+            
+            private double fraction() {
+                return totalBytes > 0 ? (double) bytesRead / totalBytes : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repository root, current feature and its spec paths, resolved the same way as
+ * get_feature_paths in scripts/bash/common.sh but without forking git. Feature directories
+ * are looked up in the {@link SpecIndex} instead of globbing specs/. Long-running processes
+ * (daemon, watch) reuse the repository root found for a directory while its .git or
+ * .specify is still there; the branch is read from HEAD on every call.
+ */
+public final class FeaturePaths {
+    
+    public static final String ENV_FEATURE = "SPECIFY_FEATURE";
+    private static final Pattern FEATURE_PREFIX = Pattern.compile("^(\\d{3})-");
+    private static final int MAX_ROOTS = 256;
+    private static final Map<Path, Root> ROOTS = new ConcurrentHashMap<>();
+    
+    /**
+     * Repository root found for a starting directory; workTree is null outside git
+     */
+    private static final class Root {
+        final Path repoRoot;
+        final Path workTree;
+        
+        Root(Path repoRoot, Path workTree) {
+            this.repoRoot = repoRoot;
+            this.workTree = workTree;
+        }
+        
+        /**
+         * Whether the marker this root was found by is still there and no repository was created in it
+         */
+        boolean isCurrent() {
+            return workTree != null
+                ? Files.exists(workTree.resolve(".git"))
+                : Files.isDirectory(repoRoot.resolve(".specify")) && !Files.exists(repoRoot.resolve(".git"));
+        }
+    }
+    
+    private final Path repoRoot;
+    private final String branch;
+    private final boolean hasGit;
+    private final Path featureDir;
+    private final List<String> duplicates;
+    private final Set<String> docs;
+    
+    private FeaturePaths(Path repoRoot, String branch, boolean hasGit, Path featureDir, List<String> duplicates,
+                         Set<String> docs) {
+        this.repoRoot = repoRoot;
+        this.branch = branch;
+        this.hasGit = hasGit;
+        this.featureDir = featureDir;
+        this.duplicates = duplicates;
+        this.docs = docs;
+    }
+    
+    /**
+     * Resolves paths for the working directory: the git work tree, else the nearest
+     * directory holding .specify, else the directory itself. SPECIFY_FEATURE is passed in
+     * rather than read here so the daemon uses the client's value (see Invocation).
+     *
+     * @param feature value of SPECIFY_FEATURE for this invocation; null or empty to detect the feature
+     */
+    public static FeaturePaths resolve(Path start, String feature) throws IOException {
+        GitService git = new GitService();
+        Root root = root(start);
+        Path workTree = root != null ? root.workTree : null;
+        Path repoRoot = root != null ? root.repoRoot : start.toAbsolutePath().normalize();
+        
+        SpecIndex index = SpecIndex.load(repoRoot, workTree != null ? git.gitDir(workTree) : null);
+        String branch = feature;
+        if (branch == null || branch.isEmpty()) {
+            branch = workTree != null ? git.currentBranch(workTree) : null;
+        }
+        if (branch == null || branch.isEmpty()) {
+            branch = index.latest() != null ? index.latest() : "main";
+        }
+        
+        // Matches by numeric prefix so several branches can share one spec (004-fix-bug, 004-add-feature)
+        String prefix = prefixOf(branch);
+        List<String> duplicates = prefix != null && index.withPrefix(prefix).size() > 1
+            ? index.withPrefix(prefix)
+            : Collections.emptyList();
+        String featureName = index.featureFor(branch);
+        Path featureDir = repoRoot.resolve("specs").resolve(featureName);
+        Set<String> docs = index.docs(featureName);
+        if (docs == null) {
+            docs = Files.isDirectory(featureDir) ? SpecIndex.scanDocs(featureDir) : Collections.emptySet();
+        }
+        return new FeaturePaths(repoRoot, branch, workTree != null, featureDir, duplicates, docs);
+    }
+    
+    public Path getRepoRoot() { return repoRoot; }
+    public String getBranch() { return branch; }
+    public boolean hasGit() { return hasGit; }
+    public Path getFeatureDir() { return featureDir; }
+    public Path getFeatureSpec() { return featureDir.resolve("spec.md"); }
+    public Path getImplPlan() { return featureDir.resolve("plan.md"); }
+    public Path getTasks() { return featureDir.resolve("tasks.md"); }
+    public Path getResearch() { return featureDir.resolve("research.md"); }
+    public Path getDataModel() { return featureDir.resolve("data-model.md"); }
+    public Path getQuickstart() { return featureDir.resolve("quickstart.md"); }
+    public Path getContractsDir() { return featureDir.resolve("contracts"); }
+    
+    /**
+     * Whether the feature directory holds a document from {@link SpecIndex#DOCS}; contracts/
+     * counts only when it has entries
+     */
+    public boolean hasDoc(String doc) { return docs.contains(doc); }
+    
+    /**
+     * Spec directories sharing the branch's numeric prefix when more than one exists; empty otherwise
+     */
+    public List<String> getDuplicates() { return duplicates; }
+    
+    /**
+     * Numeric prefix of a feature name such as "004-add-login", or null without one
+     */
+    public static String prefixOf(String name) {
+        Matcher matcher = FEATURE_PREFIX.matcher(name);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    /**
+     * The git work tree containing the path, else the nearest directory holding .specify;
+     * null when neither exists
+     */
+    public static Path findRepoRoot(Path start) {
+        Root root = root(start);
+        return root != null ? root.repoRoot : null;
+    }
+    
+    private static Root root(Path start) {
+        Path dir = start.toAbsolutePath().normalize();
+        Root root = ROOTS.get(dir);
+        if (root != null && root.isCurrent()) {
+            return root;
+        }
+        Path workTree = new GitService().findWorkTree(dir);
+        Path repoRoot = workTree != null ? workTree : findSpecifyRoot(dir);
+        if (repoRoot == null) {
+            ROOTS.remove(dir);
+            return null;
+        }
+        if (ROOTS.size() >= MAX_ROOTS) {
+            ROOTS.clear();
+        }
+        root = new Root(repoRoot, workTree);
+        ROOTS.put(dir, root);
+        return root;
+    }
+    
+    private static Path findSpecifyRoot(Path start) {
+        for (Path dir = start.toAbsolutePath().normalize(); dir != null; dir = dir.getParent()) {
+            if (Files.isDirectory(dir.resolve(".specify"))) {
+                return dir;
+            }
+        }
+        return null;
+    }
+}
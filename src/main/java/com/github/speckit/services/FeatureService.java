@@ -0,0 +1,203 @@
+package com.github.speckit.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Allocates feature numbers and branch names, replacing the branch scans in
+ * scripts/bash/create-new-feature.sh. Branches and specs/ are read in-process; for git
+ * repositories the highest number is cached in an index next to the refs, together with the
+ * modification times of the ref stores and specs/, so unchanged repositories skip the scan.
+ * Stamps as recent as {@link SpecIndex#RACY_MILLIS} are stored as unknown: on file systems
+ * with coarse timestamps a branch created in the same tick would not change them.
+ */
+public class FeatureService {
+    
+    public static final int MAX_BRANCH_LENGTH = 244;
+    private static final String INDEX_FILE = "specify-feature-index";
+    private static final String INDEX_FORMAT = "specify-feature-index 1";
+    private static final Pattern NUMBERED = Pattern.compile("^(\\d+)-");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "i", "a", "an", "the", "to", "for", "of", "in", "on", "at", "by", "with", "from", "is", "are",
+        "was", "were", "be", "been", "being", "have", "has", "had", "do", "does", "did", "will", "would",
+        "should", "could", "can", "may", "might", "must", "shall", "this", "that", "these", "those", "my",
+        "your", "our", "their", "want", "need", "add", "get", "set"));
+    
+    private final GitService gitService;
+    
+    public FeatureService(GitService gitService) {
+        this.gitService = gitService;
+    }
+    
+    /**
+     * Highest number used by a NNN-* branch (local or remote-tracking) or spec directory;
+     * 0 when there is none
+     *
+     * @param workTree git work tree, or null outside git where only specs/ is scanned
+     */
+    public int highestNumber(Path repoRoot, Path workTree) throws IOException {
+        Path specsDir = repoRoot.resolve("specs");
+        if (workTree == null) {
+            return SpecIndex.load(repoRoot, null).highestNumber();
+        }
+        
+        Path index = gitService.commonGitDir(workTree).resolve(INDEX_FILE);
+        List<String> stamps = stamps(workTree, specsDir);
+        Integer cached = readIndex(index, stamps);
+        if (cached != null) {
+            return cached;
+        }
+        
+        int highest = SpecIndex.load(repoRoot, gitService.gitDir(workTree)).highestNumber();
+        for (String branch : gitService.listBranches(workTree)) {
+            highest = Math.max(highest, numberOf(branch));
+        }
+        try {
+            writeIndex(index, highest, stable(stamps));
+        } catch (IOException e) {
+            // Only a cache: the next allocation scans again
+        }
+        return highest;
+    }
+    
+    /**
+     * Branch suffix from a description: up to three meaningful words (four when there are
+     * exactly four), skipping stop words and short words unless written as acronyms
+     */
+    public static String suffixFromDescription(String description) {
+        String clean = description.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", " ");
+        List<String> words = new ArrayList<>();
+        for (String word : clean.trim().split("\\s+")) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            if (word.length() >= 3
+                || Pattern.compile("\\b" + word.toUpperCase(Locale.ROOT) + "\\b").matcher(description).find()) {
+                words.add(word);
+            }
+        }
+        
+        if (words.isEmpty()) {
+            String fallback = sanitize(description);
+            List<String> parts = Arrays.asList(fallback.split("-"));
+            return String.join("-", parts.subList(0, Math.min(3, parts.size())));
+        }
+        int maxWords = words.size() == 4 ? 4 : 3;
+        return String.join("-", words.subList(0, Math.min(maxWords, words.size())));
+    }
+    
+    /**
+     * Lower-case, with runs of anything but letters and digits turned into single dashes
+     */
+    public static String sanitize(String name) {
+        return name.toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", "-")
+            .replaceAll("^-|-$", "");
+    }
+    
+    /**
+     * Leading number of a NNN-name branch or directory, or 0
+     */
+    static int numberOf(String name) {
+        Matcher matcher = NUMBERED.matcher(name);
+        if (!matcher.find()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * One "mtime size path" line per ref store and specs/; missing paths stamp as 0
+     */
+    private List<String> stamps(Path workTree, Path specsDir) throws IOException {
+        List<Path> paths = new ArrayList<>(gitService.refStores(workTree));
+        paths.add(specsDir);
+        List<String> stamps = new ArrayList<>();
+        for (Path path : paths) {
+            long modified = 0;
+            long size = 0;
+            if (Files.exists(path)) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                modified = attributes.lastModifiedTime().toMillis();
+                size = attributes.size();
+            }
+            stamps.add(modified + "\t" + size + "\t" + path);
+        }
+        return stamps;
+    }
+    
+    /**
+     * The stamps to store, with any too recent to rule out a later change in the same tick
+     * replaced by -1 so that it never matches and the next run rescans
+     */
+    private static List<String> stable(List<String> stamps) {
+        long racy = System.currentTimeMillis() - SpecIndex.RACY_MILLIS;
+        List<String> stable = new ArrayList<>();
+        for (String stamp : stamps) {
+            int tab = stamp.indexOf('\t');
+            stable.add(Long.parseLong(stamp.substring(0, tab)) > racy ? "-1" + stamp.substring(tab) : stamp);
+        }
+        return stable;
+    }
+    
+    /**
+     * Cached highest number, or null when the index is missing, unreadable or its stamps
+     * differ from the given ones
+     */
+    private static Integer readIndex(Path index, List<String> stamps) {
+        if (!Files.isRegularFile(index)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            if (!INDEX_FORMAT.equals(reader.readLine())) {
+                return null;
+            }
+            int highest = Integer.parseInt(reader.readLine());
+            List<String> recorded = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                recorded.add(line);
+            }
+            return stamps.equals(recorded) ? highest : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Writes through a unique temporary file, so concurrent runs never share a half-written one
+     */
+    private static void writeIndex(Path index, int highest, List<String> stamps) throws IOException {
+        Path tmp = Files.createTempFile(index.getParent(), INDEX_FILE, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(INDEX_FORMAT + "\n");
+                writer.write(highest + "\n");
+                for (String stamp : stamps) {
+                    writer.write(stamp + "\n");
+                }
+            }
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -1,28 +1,637 @@
 package com.github.speckit.services;
 
+import com.github.speckit.utils.Invocation;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
- * Service for Git repository operations
+ * Service for Git repository operations.
+ * Repositories are initialised in-process by writing the same minimal layout
+ * {@code git init} creates, so no git process is forked.
  */
 public class GitService {
     
+    private static final String INITIAL_COMMIT_MESSAGE = "Initial commit from Specify template";
+    private static final String DEFAULT_BRANCH = "master";
+    private static final String NULL_ID = "0".repeat(40);
+    private static final long FETCH_TIMEOUT_SECONDS = 30;
+    
+    /**
+     * True when the path itself is the root of a work tree: a .git directory, or a .git
+     * file (worktrees, submodules) whose gitdir exists. Parents are not searched, so a
+     * new project inside another repository still gets its own; see {@link #findWorkTree}.
+     */
     public boolean isGitRepo(Path path) {
-        return Files.exists(path.resolve(".git"));
+        return resolveGitDir(path.toAbsolutePath().normalize()) != null;
+    }
+    
+    /**
+     * Returns the root of the work tree containing the path, or null outside a repository
+     */
+    public Path findWorkTree(Path path) {
+        Path dir = path.toAbsolutePath().normalize();
+        while (dir != null) {
+            if (resolveGitDir(dir) != null) {
+                return dir;
+            }
+            dir = dir.getParent();
+        }
+        return null;
+    }
+    
+    /**
+     * Reads the checked-out branch straight from HEAD, like {@code git rev-parse --abbrev-ref HEAD}:
+     * "HEAD" when detached, null when the work tree has no git directory
+     */
+    public String currentBranch(Path workTree) throws IOException {
+        Path gitDir = resolveGitDir(workTree);
+        if (gitDir == null) {
+            return null;
+        }
+        String head = Files.readString(gitDir.resolve("HEAD")).trim();
+        return head.startsWith("ref: refs/heads/") ? head.substring("ref: refs/heads/".length()) : "HEAD";
+    }
+    
+    /**
+     * Short names of local branches and remote-tracking branches (remote name stripped),
+     * read from loose refs and packed-refs
+     */
+    public Set<String> listBranches(Path workTree) throws IOException {
+        Path commonDir = commonDir(workTree);
+        Set<String> branches = new TreeSet<>();
+        collectLooseRefs(commonDir.resolve("refs/heads"), "", branches);
+        Path remotes = commonDir.resolve("refs/remotes");
+        if (Files.isDirectory(remotes)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(remotes, Files::isDirectory)) {
+                for (Path remote : dirs) {
+                    collectLooseRefs(remote, "", branches);
+                }
+            }
+        }
+        for (String ref : readPackedRefs(commonDir).keySet()) {
+            if (ref.startsWith("refs/heads/")) {
+                branches.add(ref.substring("refs/heads/".length()));
+            } else if (ref.startsWith("refs/remotes/") && ref.indexOf('/', "refs/remotes/".length()) > 0) {
+                branches.add(ref.substring(ref.indexOf('/', "refs/remotes/".length()) + 1));
+            }
+        }
+        branches.remove("HEAD");
+        return branches;
+    }
+    
+    /**
+     * Paths whose modification times change when top-level branches are created or deleted:
+     * packed-refs, refs/heads and each refs/remotes/&lt;remote&gt; directory
+     */
+    public List<Path> refStores(Path workTree) throws IOException {
+        Path commonDir = commonDir(workTree);
+        List<Path> stores = new ArrayList<>();
+        stores.add(commonDir.resolve("packed-refs"));
+        stores.add(commonDir.resolve("refs/heads"));
+        Path remotes = commonDir.resolve("refs/remotes");
+        stores.add(remotes);
+        if (Files.isDirectory(remotes)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(remotes, Files::isDirectory)) {
+                for (Path remote : dirs) {
+                    stores.add(remote);
+                }
+            }
+        }
+        return stores;
+    }
+    
+    /**
+     * Directory holding refs and objects, shared by all linked worktrees of a repository
+     */
+    public Path commonGitDir(Path workTree) throws IOException {
+        return commonDir(workTree);
+    }
+    
+    /**
+     * This work tree's own git directory: .git, or the directory a linked worktree's .git file points to
+     */
+    public Path gitDir(Path workTree) throws IOException {
+        Path gitDir = resolveGitDir(workTree);
+        if (gitDir == null) {
+            throw new IOException("Not a git repository: " + workTree);
+        }
+        return gitDir;
+    }
+    
+    /**
+     * Creates a branch at the current commit and checks it out, like {@code git checkout -b}.
+     * The work tree and index already match that commit, so only refs and their reflogs
+     * change; on an unborn HEAD only the symbolic ref moves.
+     */
+    public void createBranch(Path workTree, String name) throws IOException {
+        Path gitDir = resolveGitDir(workTree);
+        if (gitDir == null) {
+            throw new IOException("Not a git repository: " + workTree);
+        }
+        Path commonDir = commonDir(workTree);
+        Path refPath = commonDir.resolve("refs/heads").resolve(name);
+        if (Files.exists(refPath) || readPackedRefs(commonDir).containsKey("refs/heads/" + name)) {
+            throw new IOException("A branch named '" + name + "' already exists");
+        }
+        
+        String head = Files.readString(gitDir.resolve("HEAD")).trim();
+        String commit = head.startsWith("ref: ") ? resolveRef(commonDir, head.substring(5)) : head;
+        if (commit != null) {
+            Files.createDirectories(refPath.getParent());
+            writeAtomically(refPath, commit + "\n");
+        }
+        writeAtomically(gitDir.resolve("HEAD"), "ref: refs/heads/" + name + "\n");
+        
+        // Same entries as git checkout -b: the new branch's log is shared, HEAD's is per worktree
+        if (commit != null) {
+            String identity = committerIdentity();
+            String from = head.startsWith("ref: refs/heads/") ? head.substring("ref: refs/heads/".length()) : commit;
+            appendReflog(commonDir.resolve("logs/refs/heads").resolve(name), NULL_ID, commit, identity,
+                "branch: Created from HEAD");
+            appendReflog(gitDir.resolve("logs/HEAD"), commit, commit, identity,
+                "checkout: moving from " + from + " to " + name);
+        }
     }
     
-    public void initRepo(Path path) throws IOException, InterruptedException {
-        ProcessBuilder pb = new ProcessBuilder("git", "init");
-        pb.directory(path.toFile());
-        pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
-        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
-        Process process = pb.start();
-        int exitCode = process.waitFor();
+    /**
+     * Runs {@code git fetch --all --prune} so remote-tracking refs are current. Credential
+     * prompts are disabled and the fetch is killed after {@value #FETCH_TIMEOUT_SECONDS}s,
+     * since nobody can answer a prompt on the discarded output.
+     *
+     * @return false when git is missing, the fetch fails or it times out
+     */
+    public boolean fetchAll(Path workTree) {
+        Process process = null;
+        try {
+            ProcessBuilder builder = new ProcessBuilder("git", "fetch", "--all", "--prune")
+                .directory(workTree.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+            builder.environment().put("GIT_TERMINAL_PROMPT", "0");
+            process = builder.start();
+            if (!process.waitFor(FETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    public void initRepo(Path path) throws IOException {
+        initRepo(path, false);
+    }
+    
+    /**
+     * @param quiet suppress the "Initialized empty Git repository" line, e.g. for concurrent inits
+     */
+    public void initRepo(Path path, boolean quiet) throws IOException {
+        Path gitDir = path.resolve(".git");
+        boolean windows = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+        Map<String, String> config = readUserConfig();
+        
+        Files.createDirectories(gitDir.resolve("objects/info"));
+        Files.createDirectories(gitDir.resolve("objects/pack"));
+        Files.createDirectories(gitDir.resolve("refs/heads"));
+        Files.createDirectories(gitDir.resolve("refs/tags"));
+        Files.createDirectories(gitDir.resolve("info"));
+        Files.createDirectories(gitDir.resolve("hooks"));
+        
+        String branch = config.getOrDefault("init.defaultbranch", DEFAULT_BRANCH);
+        writeString(gitDir.resolve("HEAD"), "ref: refs/heads/" + branch + "\n");
+        writeString(gitDir.resolve("description"),
+            "Unnamed repository; edit this file 'description' to name the repository.\n");
+        writeString(gitDir.resolve("info/exclude"),
+            "# git ls-files --others --exclude-from=.git/info/exclude\n"
+                + "# Lines that start with '#' are comments.\n");
+        
+        StringBuilder core = new StringBuilder()
+            .append("[core]\n")
+            .append("\trepositoryformatversion = 0\n")
+            .append("\tfilemode = ").append(!windows).append('\n')
+            .append("\tbare = false\n")
+            .append("\tlogallrefupdates = true\n");
+        if (windows) {
+            core.append("\tsymlinks = false\n").append("\tignorecase = true\n");
+        }
+        writeString(gitDir.resolve("config"), core.toString());
+        
+        if (!quiet) {
+            System.out.println("Initialized empty Git repository in " + gitDir.toAbsolutePath() + "/");
+        }
+    }
+    
+    /**
+     * Commits every file under the work tree as the root commit and writes a matching index.
+     * There is no .gitignore support, so callers should only use this on freshly
+     * extracted projects.
+     *
+     * @return the commit id, or null when no author identity is configured
+     */
+    public String createInitialCommit(Path path) throws IOException {
+        Path gitDir = path.resolve(".git");
+        Map<String, String> config = readUserConfig();
+        
+        String name = firstNonBlank(System.getenv("GIT_AUTHOR_NAME"), config.get("user.name"));
+        String email = firstNonBlank(System.getenv("GIT_AUTHOR_EMAIL"), config.get("user.email"));
+        if (name == null || email == null) {
+            return null;
+        }
+        
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        TreeMap<String, IndexEntry> entries = new TreeMap<>(GitService::compareBytes);
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) walk::iterator) {
+                Path relative = path.relativize(file);
+                if (relative.toString().isEmpty() || relative.getName(0).toString().equals(".git")) {
+                    continue;
+                }
+                if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    continue;
+                }
+                byte[] content = Files.readAllBytes(file);
+                boolean executable = posix && Files.isExecutable(file);
+                String id = writeObject(gitDir, "blob", content);
+                String entryPath = relative.toString().replace('\\', '/');
+                entries.put(entryPath, new IndexEntry(entryPath, id, executable ? 0100755 : 0100644, file));
+            }
+        }
+        
+        String treeId = writeTree(gitDir, entries, "");
+        
+        String identity = name + " <" + email + "> " + timestamp();
+        String commit = "tree " + treeId + "\n"
+            + "author " + identity + "\n"
+            + "committer " + identity + "\n"
+            + "\n"
+            + INITIAL_COMMIT_MESSAGE + "\n";
+        String commitId = writeObject(gitDir, "commit", commit.getBytes(StandardCharsets.UTF_8));
+        
+        String head = Files.readString(gitDir.resolve("HEAD")).trim();
+        String ref = head.startsWith("ref: ") ? head.substring(5) : "refs/heads/" + DEFAULT_BRANCH;
+        Path refPath = gitDir.resolve(ref);
+        Files.createDirectories(refPath.getParent());
+        writeString(refPath, commitId + "\n");
+        
+        writeIndex(gitDir, entries);
+        return commitId;
+    }
+    
+    /**
+     * Returns the git directory for a work tree root, following "gitdir:" files
+     */
+    private static Path resolveGitDir(Path dir) {
+        Path dotGit = dir.resolve(".git");
+        if (Files.isDirectory(dotGit)) {
+            return Files.exists(dotGit.resolve("HEAD")) ? dotGit : null;
+        }
+        if (Files.isRegularFile(dotGit)) {
+            try {
+                String content = Files.readString(dotGit).trim();
+                if (content.startsWith("gitdir:")) {
+                    Path target = dir.resolve(content.substring("gitdir:".length()).trim()).normalize();
+                    return Files.isDirectory(target) ? target : null;
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Directory holding refs and objects: the git directory itself, or the main repository's
+     * for linked worktrees
+     */
+    private static Path commonDir(Path workTree) throws IOException {
+        Path gitDir = resolveGitDir(workTree);
+        if (gitDir == null) {
+            throw new IOException("Not a git repository: " + workTree);
+        }
+        Path commonFile = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonFile)) {
+            return gitDir.resolve(Files.readString(commonFile).trim()).normalize();
+        }
+        return gitDir;
+    }
+    
+    private static void collectLooseRefs(Path dir, String prefix, Set<String> names) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                String name = prefix + entry.getFileName();
+                if (Files.isDirectory(entry)) {
+                    collectLooseRefs(entry, name + "/", names);
+                } else {
+                    names.add(name);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Maps ref names to object ids from packed-refs, skipping comments and peeled lines
+     */
+    private static Map<String, String> readPackedRefs(Path commonDir) throws IOException {
+        Map<String, String> refs = new HashMap<>();
+        Path packed = commonDir.resolve("packed-refs");
+        if (!Files.isRegularFile(packed)) {
+            return refs;
+        }
+        for (String line : Files.readAllLines(packed, StandardCharsets.UTF_8)) {
+            int space = line.indexOf(' ');
+            if (!line.startsWith("#") && !line.startsWith("^") && space > 0) {
+                refs.put(line.substring(space + 1).trim(), line.substring(0, space));
+            }
+        }
+        return refs;
+    }
+    
+    /**
+     * Object id a ref points to, or null for an unborn branch
+     */
+    private static String resolveRef(Path commonDir, String ref) throws IOException {
+        Path loose = commonDir.resolve(ref);
+        if (Files.isRegularFile(loose)) {
+            return Files.readString(loose).trim();
+        }
+        return readPackedRefs(commonDir).get(ref);
+    }
+    
+    private static void writeAtomically(Path path, String content) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".lock");
+        writeString(tmp, content);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Writes one tree per directory, depth first, and returns the id of the tree for prefix
+     */
+    private String writeTree(Path gitDir, TreeMap<String, IndexEntry> entries, String prefix) throws IOException {
+        // name -> (mode, id); directories are collected first, then written recursively
+        TreeMap<String, String[]> children = new TreeMap<>((a, b) -> compareTreeNames(a, b, entries, prefix));
+        for (Map.Entry<String, IndexEntry> entry : entries.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+            String rest = entry.getKey().substring(prefix.length());
+            int slash = rest.indexOf('/');
+            if (slash < 0) {
+                IndexEntry file = entry.getValue();
+                children.put(rest, new String[] {Integer.toOctalString(file.mode), file.id});
+            } else {
+                String dirName = rest.substring(0, slash);
+                if (!children.containsKey(dirName)) {
+                    children.put(dirName, new String[] {"40000", writeTree(gitDir, entries, prefix + dirName + "/")});
+                }
+            }
+        }
+        
+        ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        for (Map.Entry<String, String[]> child : children.entrySet()) {
+            tree.write((child.getValue()[0] + " " + child.getKey()).getBytes(StandardCharsets.UTF_8));
+            tree.write(0);
+            tree.write(HexFormat.of().parseHex(child.getValue()[1]));
+        }
+        return writeObject(gitDir, "tree", tree.toByteArray());
+    }
+    
+    /**
+     * Git orders tree entries as if directory names ended with '/'
+     */
+    private static int compareTreeNames(String a, String b, TreeMap<String, IndexEntry> entries, String prefix) {
+        String keyA = entries.containsKey(prefix + a) ? a : a + "/";
+        String keyB = entries.containsKey(prefix + b) ? b : b + "/";
+        return compareBytes(keyA, keyB);
+    }
+    
+    private static int compareBytes(String a, String b) {
+        return Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Writes a loose object and returns its SHA-1
+     */
+    private static String writeObject(Path gitDir, String type, byte[] content) throws IOException {
+        byte[] header = (type + " " + content.length + "\0").getBytes(StandardCharsets.UTF_8);
+        MessageDigest sha1 = sha1();
+        sha1.update(header);
+        sha1.update(content);
+        String id = HexFormat.of().formatHex(sha1.digest());
+        
+        Path objectPath = gitDir.resolve("objects").resolve(id.substring(0, 2)).resolve(id.substring(2));
+        if (!Files.exists(objectPath)) {
+            Files.createDirectories(objectPath.getParent());
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(objectPath), new Deflater(1), true)) {
+                out.write(header);
+                out.write(content);
+            }
+        }
+        return id;
+    }
+    
+    /**
+     * Writes a version 2 index so the new commit shows a clean status
+     */
+    private static void writeIndex(Path gitDir, TreeMap<String, IndexEntry> entries) throws IOException {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.put("DIRC".getBytes(StandardCharsets.US_ASCII)).putInt(2).putInt(entries.size());
+        index.write(header.array());
+        
+        for (IndexEntry entry : entries.values()) {
+            byte[] name = entry.path.getBytes(StandardCharsets.UTF_8);
+            int length = 62 + name.length;
+            int padded = (length + 8) & ~7;
+            ByteBuffer buffer = ByteBuffer.allocate(padded);
+            buffer.putInt((int) entry.ctime.getEpochSecond()).putInt(entry.ctime.getNano());
+            buffer.putInt((int) entry.mtime.getEpochSecond()).putInt(entry.mtime.getNano());
+            buffer.putInt(entry.dev).putInt(entry.ino).putInt(entry.mode);
+            buffer.putInt(entry.uid).putInt(entry.gid).putInt((int) entry.size);
+            buffer.put(HexFormat.of().parseHex(entry.id));
+            buffer.putShort((short) Math.min(name.length, 0xFFF));
+            buffer.put(name);
+            index.write(buffer.array());
+        }
+        
+        byte[] body = index.toByteArray();
+        MessageDigest sha1 = sha1();
+        sha1.update(body);
+        try (OutputStream out = Files.newOutputStream(gitDir.resolve("index"))) {
+            out.write(body);
+            out.write(sha1.digest());
+        }
+    }
+    
+    /**
+     * Reads init.defaultBranch, user.name and user.email from the global git config files
+     */
+    private static Map<String, String> readUserConfig() {
+        Map<String, String> values = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+        String xdg = System.getenv("XDG_CONFIG_HOME");
+        files.add(xdg != null && !xdg.isBlank()
+            ? Paths.get(xdg, "git", "config")
+            : Paths.get(System.getProperty("user.home"), ".config", "git", "config"));
+        files.add(Paths.get(System.getProperty("user.home"), ".gitconfig"));
+        
+        // Later files win, matching git's precedence of ~/.gitconfig over the XDG file
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            try {
+                String section = "";
+                for (String raw : Files.readAllLines(file)) {
+                    String line = raw.trim();
+                    if (line.isEmpty() || line.startsWith("#") || line.startsWith(";")) {
+                        continue;
+                    }
+                    if (line.startsWith("[")) {
+                        section = line.substring(1, line.indexOf(']') > 0 ? line.indexOf(']') : line.length())
+                            .trim().toLowerCase(Locale.ROOT);
+                        continue;
+                    }
+                    int eq = line.indexOf('=');
+                    if (eq > 0) {
+                        String key = section + "." + line.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+                        String value = line.substring(eq + 1).trim();
+                        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                            value = value.substring(1, value.length() - 1);
+                        }
+                        values.put(key, value);
+                    }
+                }
+            } catch (IOException e) {
+                // Unreadable config is treated as empty
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Appends one reflog line: {@code <old> <new> <identity>\t<message>}
+     */
+    private static void appendReflog(Path log, String oldId, String newId, String identity, String message)
+            throws IOException {
+        Files.createDirectories(log.getParent());
+        String line = oldId + " " + newId + " " + identity + "\t" + message + "\n";
+        Files.write(log, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    
+    /**
+     * Committer name, email and time for reflog entries. Like git, falls back to the login
+     * name when no identity is configured instead of refusing to update the ref.
+     */
+    private static String committerIdentity() {
+        Map<String, String> config = readUserConfig();
+        String user = System.getProperty("user.name");
+        String name = firstNonBlank(Invocation.getenv("GIT_COMMITTER_NAME"),
+            firstNonBlank(config.get("user.name"), user));
+        String email = firstNonBlank(Invocation.getenv("GIT_COMMITTER_EMAIL"),
+            firstNonBlank(config.get("user.email"), user + "@localhost"));
+        return name + " <" + email + "> " + timestamp();
+    }
+    
+    private static String timestamp() {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
+        int offsetMinutes = now.getOffset().getTotalSeconds() / 60;
+        char sign = offsetMinutes < 0 ? '-' : '+';
+        offsetMinutes = Math.abs(offsetMinutes);
+        return now.toEpochSecond() + " " + sign + String.format("%02d%02d", offsetMinutes / 60, offsetMinutes % 60);
+    }
+    
+    private static String firstNonBlank(String first, String second) {
+        if (first != null && !first.isBlank()) {
+            return first;
+        }
+        return second != null && !second.isBlank() ? second : null;
+    }
+    
+    private static void writeString(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static MessageDigest sha1() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 not available", e);
+        }
+    }
+    
+    /**
+     * A staged file with the stat data git compares against the work tree
+     */
+    private static class IndexEntry {
+        final String path;
+        final String id;
+        final int mode;
+        final Instant ctime;
+        final Instant mtime;
+        final int dev;
+        final int ino;
+        final int uid;
+        final int gid;
+        final long size;
+        
+        IndexEntry(String path, String id, int mode, Path file) throws IOException {
+            this.path = path;
+            this.id = id;
+            this.mode = mode;
+            Map<String, Object> unix = readUnixAttributes(file);
+            FileTime modified = Files.getLastModifiedTime(file);
+            this.mtime = modified.toInstant();
+            this.ctime = ((FileTime) unix.getOrDefault("ctime", modified)).toInstant();
+            this.dev = ((Number) unix.getOrDefault("dev", 0L)).intValue();
+            this.ino = ((Number) unix.getOrDefault("ino", 0L)).intValue();
+            this.uid = ((Number) unix.getOrDefault("uid", 0)).intValue();
+            this.gid = ((Number) unix.getOrDefault("gid", 0)).intValue();
+            this.size = Files.size(file);
+        }
         
-        if (exitCode != 0) {
-            throw new IOException("Git init failed with exit code: " + exitCode);
+        private static Map<String, Object> readUnixAttributes(Path file) {
+            try {
+                return Files.readAttributes(file, "unix:dev,ino,uid,gid,ctime", LinkOption.NOFOLLOW_LINKS);
+            } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+                return Map.of();
+            }
         }
     }
 }
@@ -1,17 +1,16 @@
 package com.github.speckit.services;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,72 +20,168 @@ public class GithubService {
     
     private static final String REPO_OWNER = "github";
     private static final String REPO_NAME = "spec-kit";
-    private final OkHttpClient client;
+    private static final String DEFAULT_API_URL = "https://api.github.com";
+    private static final String GITHUB_DOWNLOAD_URL = "https://github.com";
+    // One client for all instances, so API lookups, mirrors and download chunks share connections
+    private static volatile OkHttpClient sharedClient;
+    private final String apiUrl;
+    private final String downloadUrl;
     
     public GithubService() {
-        this.client = new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .build();
+        this(System.getProperty("specify.github.api.url", DEFAULT_API_URL));
+    }
+    
+    /**
+     * @param apiUrl API base URL, e.g. a GitHub Enterprise host or a local stand-in
+     */
+    public GithubService(String apiUrl) {
+        this(apiUrl, null);
+    }
+    
+    /**
+     * @param apiUrl API base URL
+     * @param downloadUrl replaces https://github.com in asset download URLs, e.g. a mirror
+     *                    serving both the API and download paths; null keeps them unchanged
+     */
+    public GithubService(String apiUrl, String downloadUrl) {
+        this.apiUrl = stripSlash(apiUrl);
+        this.downloadUrl = downloadUrl != null ? stripSlash(downloadUrl) : null;
+    }
+    
+    /**
+     * Receives download progress; totalBytes is -1 when the server sends no Content-Length
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes);
+    }
+    
+    /**
+     * Consumes the open asset stream; the HTTP response is closed once it returns
+     */
+    @FunctionalInterface
+    public interface StreamHandler<T> {
+        T apply(InputStream in) throws IOException;
     }
     
     public Path downloadTemplate(String agent, String scriptType) throws IOException {
-        // 1. Get latest release information
-        String apiUrl = String.format(
-            "https://api.github.com/repos/%s/%s/releases/latest",
-            REPO_OWNER, REPO_NAME
-        );
-        
-        Request request = new Request.Builder()
-            .url(apiUrl)
-            .header("Accept", "application/vnd.github.v3+json")
-            .build();
+        return downloadTemplate(agent, scriptType, null);
+    }
+    
+    /**
+     * Downloads the template into a new temp file owned by the caller. Nothing is shared with
+     * other processes, so nothing is resumed either; {@link TemplateCacheService} keeps
+     * interrupted downloads.
+     */
+    public Path downloadTemplate(String agent, String scriptType, ProgressListener listener) throws IOException {
+        ReleaseIndex.Asset asset = fetchReleaseIndex(null).find(agent, scriptType);
         
-        JsonObject release;
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Failed to fetch release: HTTP " + response.code());
-            }
-            String body = response.body().string();
-            release = JsonParser.parseString(body).getAsJsonObject();
+        Path zipPath = Files.createTempFile("specify-", "-" + asset.getName());
+        try {
+            downloadAsset(asset.getUrl(), zipPath, listener);
+        } catch (IOException | RuntimeException e) {
+            RangeDownloader.discard(zipPath);
+            throw e;
         }
+        return zipPath;
+    }
+    
+    /**
+     * Streams the template asset straight into the consumer without writing a temp file
+     */
+    public <T> T streamTemplate(String agent, String scriptType, StreamHandler<T> handler) throws IOException {
+        ReleaseIndex.Asset asset = fetchReleaseIndex(null).find(agent, scriptType);
         
-        // 2. Find matching asset
-        String pattern = String.format("spec-kit-template-%s-%s", agent, scriptType);
-        JsonObject matchedAsset = null;
-        
-        JsonArray assets = release.getAsJsonArray("assets");
-        for (JsonElement assetElement : assets) {
-            JsonObject asset = assetElement.getAsJsonObject();
-            String name = asset.get("name").getAsString();
-            if (name.contains(pattern) && name.endsWith(".zip")) {
-                matchedAsset = asset;
-                break;
-            }
+        try (Response response = openDownload(asset.getUrl());
+             InputStream in = response.body().byteStream()) {
+            return handler.apply(in);
         }
+    }
+    
+    /**
+     * Fetches the latest release and indexes its assets while streaming the body.
+     * With a non-null etag the request is conditional and a 304 returns null.
+     */
+    public ReleaseIndex fetchReleaseIndex(String etag) throws IOException {
+        String releaseUrl = String.format(
+            "%s/repos/%s/%s/releases/latest",
+            apiUrl, REPO_OWNER, REPO_NAME
+        );
         
-        if (matchedAsset == null) {
-            throw new IOException("No matching template found for pattern: " + pattern);
+        Request.Builder builder = new Request.Builder()
+            .url(releaseUrl)
+            .header("Accept", "application/vnd.github.v3+json");
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
         }
         
-        // 3. Download zip file
-        String downloadUrl = matchedAsset.get("browser_download_url").getAsString();
-        String filename = matchedAsset.get("name").getAsString();
-        
+        try (Response response = client().newCall(builder.build()).execute()) {
+            if (response.code() == 304) {
+                return null;
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to fetch release: HTTP " + response.code());
+            }
+            return ReleaseIndex.parse(response.body().charStream(), response.header("ETag"));
+        }
+    }
+    
+    /**
+     * Downloads an asset to the given path. An interrupted download leaves its progress
+     * next to the path and the next call for the same path resumes it with Range requests;
+     * large assets are fetched in parallel chunks.
+     */
+    public void downloadAsset(String assetUrl, Path zipPath, ProgressListener listener) throws IOException {
+        new RangeDownloader(client()).download(resolveDownloadUrl(assetUrl), zipPath, listener);
+    }
+    
+    private Response openDownload(String assetUrl) throws IOException {
         Request downloadRequest = new Request.Builder()
-            .url(downloadUrl)
+            .url(resolveDownloadUrl(assetUrl))
             .build();
         
-        Path tmpDir = Paths.get(System.getProperty("java.io.tmpdir"));
-        Path zipPath = tmpDir.resolve(filename);
-        
-        try (Response response = client.newCall(downloadRequest).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Download failed: HTTP " + response.code());
+        Response response = client().newCall(downloadRequest).execute();
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new IOException("Download failed: HTTP " + response.code());
+        }
+        return response;
+    }
+    
+    /**
+     * Builds the shared HTTP client on first request; sources that never go to the network skip it.
+     * HTTP/2 is preferred so parallel chunks multiplex over one connection, and pings detect
+     * dead connections on flaky links instead of waiting for the read timeout.
+     */
+    private static OkHttpClient client() {
+        OkHttpClient result = sharedClient;
+        if (result == null) {
+            synchronized (GithubService.class) {
+                result = sharedClient;
+                if (result == null) {
+                    result = new OkHttpClient.Builder()
+                        .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                        .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                        .pingInterval(15, TimeUnit.SECONDS)
+                        .retryOnConnectionFailure(true)
+                        .connectTimeout(30, TimeUnit.SECONDS)
+                        .readTimeout(60, TimeUnit.SECONDS)
+                        .build();
+                    sharedClient = result;
+                }
             }
-            Files.write(zipPath, response.body().bytes());
         }
-        
-        return zipPath;
+        return result;
+    }
+    
+    private String resolveDownloadUrl(String assetUrl) {
+        if (downloadUrl != null && assetUrl.startsWith(GITHUB_DOWNLOAD_URL + "/")) {
+            return downloadUrl + assetUrl.substring(GITHUB_DOWNLOAD_URL.length());
+        }
+        return assetUrl;
+    }
+    
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 }
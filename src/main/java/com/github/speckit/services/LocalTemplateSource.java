@@ -0,0 +1,82 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Template source reading from the file system: either a single zip used for every
+ * agent/script pair, or a directory of release zips named like .genreleases
+ * ({@code spec-kit-template-<agent>-<script>-<version>.zip}). No network access.
+ */
+class LocalTemplateSource implements TemplateSource {
+    
+    private static final String PREFIX = "spec-kit-template-";
+    
+    private final Path path;
+    
+    LocalTemplateSource(Path path) {
+        this.path = path.toAbsolutePath().normalize();
+    }
+    
+    @Override
+    public String getName() {
+        return "local(" + path + ")";
+    }
+    
+    @Override
+    public TemplateCacheService.CachedTemplate fetch(String agent, String scriptType,
+                                                     GithubService.ProgressListener listener) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return new TemplateCacheService.CachedTemplate(path, version(path, null), false, false, true);
+        }
+        if (!Files.isDirectory(path)) {
+            throw new IOException("Template source not found: " + path);
+        }
+        
+        // Highest version wins when a directory holds several releases
+        String prefix = PREFIX + agent + "-" + scriptType + "-";
+        Optional<Path> zip;
+        try (Stream<Path> files = Files.list(path)) {
+            zip = files
+                .filter(p -> {
+                    String name = p.getFileName().toString();
+                    return name.startsWith(prefix) && name.endsWith(".zip");
+                })
+                .max(Comparator.comparing((Path p) -> version(p, prefix), LocalTemplateSource::compareVersions));
+        }
+        if (zip.isEmpty()) {
+            throw new IOException("No template " + prefix + "*.zip in " + path);
+        }
+        return new TemplateCacheService.CachedTemplate(zip.get(), version(zip.get(), prefix), false, false, true);
+    }
+    
+    private static String version(Path zip, String prefix) {
+        String name = zip.getFileName().toString();
+        name = name.substring(0, name.length() - ".zip".length());
+        if (prefix != null) {
+            return name.substring(prefix.length());
+        }
+        int dash = name.lastIndexOf('-');
+        return dash >= 0 ? name.substring(dash + 1) : name;
+    }
+    
+    /**
+     * Compares versions like v0.0.9 and v0.0.10 by their numeric parts
+     */
+    static int compareVersions(String a, String b) {
+        String[] left = a.replaceAll("^[^0-9]+", "").split("[^0-9]+");
+        String[] right = b.replaceAll("^[^0-9]+", "").split("[^0-9]+");
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            long l = i < left.length && !left[i].isEmpty() ? Long.parseLong(left[i]) : 0;
+            long r = i < right.length && !right[i].isEmpty() ? Long.parseLong(right[i]) : 0;
+            if (l != r) {
+                return Long.compare(l, r);
+            }
+        }
+        return a.compareTo(b);
+    }
+}
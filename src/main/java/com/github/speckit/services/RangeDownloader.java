@@ -0,0 +1,369 @@
+package com.github.speckit.services;
+
+import com.github.speckit.utils.FileUtils;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable downloads with HTTP Range requests.
+ * <p>
+ * Progress survives failures and restarts. A {@code <target>.download} sidecar
+ * records the server validator (ETag or Last-Modified) and the total size, and the
+ * next attempt continues with {@code Range} plus {@code If-Range}, so a changed
+ * asset restarts instead of being spliced; without a validator it restarts from
+ * zero. Large assets on servers that accept ranges are split into chunks fetched
+ * in parallel into {@code <target>.chunks/}, each resumable on its own, and
+ * concatenated once all are complete.
+ */
+class RangeDownloader {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String STATE_SUFFIX = ".download";
+    private static final String CHUNKS_SUFFIX = ".chunks";
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+    
+    static final long DEFAULT_CHUNK_THRESHOLD = 8L * 1024 * 1024;
+    static final int DEFAULT_CHUNKS = 4;
+    static final int MAX_ATTEMPTS = 4;
+    private static final long RETRY_DELAY_MILLIS = 500;
+    
+    private final OkHttpClient client;
+    private final long chunkThreshold;
+    private final int chunks;
+    
+    RangeDownloader(OkHttpClient client) {
+        this(client, DEFAULT_CHUNK_THRESHOLD, DEFAULT_CHUNKS);
+    }
+    
+    RangeDownloader(OkHttpClient client, long chunkThreshold, int chunks) {
+        this.client = client;
+        this.chunkThreshold = chunkThreshold;
+        this.chunks = Math.max(1, chunks);
+    }
+    
+    /**
+     * An HTTP error status; 4xx other than 408, 416 and 429 are not retried
+     */
+    static class HttpStatusException extends IOException {
+        private final int code;
+        
+        HttpStatusException(String message, int code) {
+            super(message + ": HTTP " + code);
+            this.code = code;
+        }
+        
+        int getCode() { return code; }
+        
+        boolean isRetryable() {
+            return code < 400 || code >= 500 || code == 408 || code == 416 || code == 429;
+        }
+    }
+    
+    /**
+     * Validator and size of an interrupted download, persisted in the sidecar
+     */
+    private static class State {
+        final String validator;
+        final long total;
+        final boolean chunked;
+        
+        State(String validator, long total, boolean chunked) {
+            this.validator = validator;
+            this.total = total;
+            this.chunked = chunked;
+        }
+        
+        static State read(Path path) {
+            try {
+                List<String> lines = Files.readAllLines(path);
+                if (lines.size() < 3) {
+                    return null;
+                }
+                return new State(lines.get(0).isEmpty() ? null : lines.get(0),
+                    Long.parseLong(lines.get(1)), Boolean.parseBoolean(lines.get(2)));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+        
+        void write(Path path) throws IOException {
+            Files.writeString(path, (validator == null ? "" : validator) + "\n" + total + "\n" + chunked + "\n");
+        }
+    }
+    
+    /**
+     * Downloads url into target, resuming earlier progress and retrying transient failures
+     */
+    void download(String url, Path target, GithubService.ProgressListener listener) throws IOException {
+        Path statePath = target.resolveSibling(target.getFileName() + STATE_SUFFIX);
+        Path chunksDir = target.resolveSibling(target.getFileName() + CHUNKS_SUFFIX);
+        
+        // Without a sidecar there is nothing to trust on disk
+        if (!Files.exists(statePath)) {
+            Files.deleteIfExists(target);
+            FileUtils.deleteRecursively(chunksDir);
+        }
+        
+        IOException failure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                sleep(RETRY_DELAY_MILLIS << (attempt - 1));
+            }
+            try {
+                State state = State.read(statePath);
+                if (state != null && state.chunked) {
+                    downloadChunked(url, target, state, listener);
+                } else {
+                    downloadStream(url, target, statePath, state, listener);
+                }
+                Files.deleteIfExists(statePath);
+                FileUtils.deleteRecursively(chunksDir);
+                return;
+            } catch (HttpStatusException e) {
+                if (!e.isRetryable()) {
+                    throw e;
+                }
+                if (e.getCode() == 416) {
+                    // Partial state no longer matches the asset: restart from scratch
+                    Files.deleteIfExists(target);
+                    Files.deleteIfExists(statePath);
+                    FileUtils.deleteRecursively(chunksDir);
+                }
+                failure = e;
+            } catch (SocketTimeoutException e) {
+                // A stalled connection is as transient as a dropped one
+                failure = e;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+    
+    /**
+     * Removes a download and whatever progress was kept for it
+     */
+    static void discard(Path target) throws IOException {
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + STATE_SUFFIX));
+        FileUtils.deleteRecursively(target.resolveSibling(target.getFileName() + CHUNKS_SUFFIX));
+    }
+    
+    private void downloadStream(String url, Path target, Path statePath, State state,
+                                GithubService.ProgressListener listener) throws IOException {
+        // Without a validator nothing proves the bytes on disk are the current asset: restart from zero
+        long existing = state != null && state.validator != null && Files.exists(target) ? Files.size(target) : 0;
+        
+        // Always ask for a range: a 206 also tells us the total size and that ranges work
+        Request.Builder builder = new Request.Builder().url(url).header("Range", "bytes=" + existing + "-");
+        if (existing > 0) {
+            builder.header("If-Range", state.validator);
+        }
+        
+        State split = null;
+        try (Response response = client.newCall(builder.build()).execute()) {
+            String validator = validator(response);
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException("Download failed", response.code());
+            }
+            
+            long offset;
+            long total;
+            if (response.code() == 206) {
+                long[] range = parseContentRange(response.header("Content-Range"));
+                offset = range[0];
+                total = range[2];
+                if (offset != existing) {
+                    throw new IOException("Server returned an unexpected range: " + response.header("Content-Range"));
+                }
+                if (offset == 0 && total >= chunkThreshold && chunks > 1 && validator != null) {
+                    // Large asset with range support: abandon this stream and fetch chunks in parallel
+                    split = new State(validator, total, true);
+                }
+            } else {
+                // 200: the server ignored the range or the asset changed; restart from zero
+                offset = 0;
+                total = response.body().contentLength();
+            }
+            
+            if (split == null) {
+                new State(validator, total, false).write(statePath);
+                StandardOpenOption mode = offset > 0
+                    ? StandardOpenOption.APPEND
+                    : StandardOpenOption.TRUNCATE_EXISTING;
+                try (InputStream in = response.body().byteStream();
+                     OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, mode)) {
+                    AtomicLong progress = new AtomicLong(offset);
+                    copy(in, out, Long.MAX_VALUE, progress, total, listener);
+                }
+                if (total >= 0 && Files.size(target) != total) {
+                    throw new IOException("Incomplete download: " + Files.size(target) + " of " + total + " bytes");
+                }
+            }
+        }
+        
+        if (split != null) {
+            split.write(statePath);
+            downloadChunked(url, target, split, listener);
+        }
+    }
+    
+    private void downloadChunked(String url, Path target, State state, GithubService.ProgressListener listener)
+            throws IOException {
+        Path chunksDir = target.resolveSibling(target.getFileName() + CHUNKS_SUFFIX);
+        Files.createDirectories(chunksDir);
+        
+        long chunkSize = (state.total + chunks - 1) / chunks;
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = 0; start < state.total; start += chunkSize) {
+            ranges.add(new long[] {start, Math.min(start + chunkSize, state.total) - 1});
+        }
+        
+        AtomicLong progress = new AtomicLong();
+        for (int i = 0; i < ranges.size(); i++) {
+            Path chunk = chunksDir.resolve("chunk-" + i);
+            if (Files.exists(chunk)) {
+                progress.addAndGet(Files.size(chunk));
+            }
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size(), runnable -> {
+            Thread thread = new Thread(runnable, "specify-download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                Path chunk = chunksDir.resolve("chunk-" + i);
+                long[] range = ranges.get(i);
+                futures.add(executor.submit(() -> {
+                    downloadChunk(url, chunk, range[0], range[1], state, progress, listener);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during download");
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                try (FileChannel in = FileChannel.open(chunksDir.resolve("chunk-" + i), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void downloadChunk(String url, Path chunk, long start, long end, State state, AtomicLong progress,
+                               GithubService.ProgressListener listener) throws IOException {
+        long length = end - start + 1;
+        long existing = Files.exists(chunk) ? Files.size(chunk) : 0;
+        if (existing >= length) {
+            return;
+        }
+        
+        Request request = new Request.Builder()
+            .url(url)
+            .header("Range", "bytes=" + (start + existing) + "-" + end)
+            .header("If-Range", state.validator)
+            .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() != 206) {
+                // The asset changed or ranges stopped working: reported as 416 so the chunk state is reset
+                throw new HttpStatusException("Chunk download failed", response.code() == 200 ? 416 : response.code());
+            }
+            try (InputStream in = response.body().byteStream();
+                 OutputStream out = Files.newOutputStream(chunk, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                copy(in, out, length - existing, progress, state.total, listener);
+            }
+        }
+        if (Files.size(chunk) != length) {
+            throw new IOException("Incomplete chunk " + chunk.getFileName());
+        }
+    }
+    
+    private static void copy(InputStream in, OutputStream out, long limit, AtomicLong progress, long total,
+                             GithubService.ProgressListener listener) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = limit;
+        int n;
+        while (remaining > 0 && (n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            out.write(buffer, 0, n);
+            remaining -= n;
+            long done = progress.addAndGet(n);
+            if (listener != null) {
+                synchronized (listener) {
+                    listener.onProgress(done, total);
+                }
+            }
+        }
+    }
+    
+    private static String validator(Response response) {
+        String etag = response.header("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.header("Last-Modified");
+    }
+    
+    private static long[] parseContentRange(String header) throws IOException {
+        Matcher matcher = header == null ? null : CONTENT_RANGE.matcher(header);
+        if (matcher == null || !matcher.matches()) {
+            throw new IOException("Missing or invalid Content-Range: " + header);
+        }
+        return new long[] {
+            Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))
+        };
+    }
+    
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
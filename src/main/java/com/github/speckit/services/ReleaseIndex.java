@@ -0,0 +1,227 @@
+package com.github.speckit.services;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template assets of one release, keyed by agent and script type.
+ * Built by streaming the release document once, so only the fields used here are
+ * materialised, and persisted with the ETag as a small tab-separated file.
+ */
+public class ReleaseIndex {
+    
+    private static final String PREFIX = "spec-kit-template-";
+    private static final String FORMAT = "specify-release-index 1";
+    
+    /**
+     * One downloadable template zip
+     */
+    public static class Asset {
+        private final String name;
+        private final String url;
+        private final long size;
+        private final String digest;
+        
+        Asset(String name, String url, long size, String digest) {
+            this.name = name;
+            this.url = url;
+            this.size = size;
+            this.digest = digest;
+        }
+        
+        public String getName() { return name; }
+        public String getUrl() { return url; }
+        public long getSize() { return size; }
+        
+        /**
+         * @return hex SHA-256 published with the asset, or null when the release has none
+         */
+        public String getSha256() {
+            return digest != null && digest.startsWith("sha256:") ? digest.substring("sha256:".length()) : null;
+        }
+    }
+    
+    private final String tag;
+    private final String etag;
+    private final List<Asset> assets;
+    private final Map<String, Asset> byKey = new HashMap<>();
+    
+    ReleaseIndex(String tag, String etag, List<Asset> assets) {
+        this.tag = tag;
+        this.etag = etag;
+        this.assets = Collections.unmodifiableList(assets);
+        for (Asset asset : assets) {
+            String key = keyOf(asset.name);
+            if (key != null) {
+                byKey.putIfAbsent(key, asset);
+            }
+        }
+    }
+    
+    public String getTag() { return tag; }
+    public String getEtag() { return etag; }
+    public List<Asset> getAssets() { return assets; }
+    
+    /**
+     * Finds the zip for the agent/script pair
+     */
+    public Asset find(String agent, String scriptType) throws IOException {
+        Asset asset = byKey.get(agent + "-" + scriptType);
+        if (asset != null) {
+            return asset;
+        }
+        // Names outside the usual scheme fall back to the original substring match
+        String pattern = PREFIX + agent + "-" + scriptType;
+        for (Asset candidate : assets) {
+            if (candidate.name.contains(pattern) && candidate.name.endsWith(".zip")) {
+                return candidate;
+            }
+        }
+        throw new IOException("No matching template found for pattern: " + pattern);
+    }
+    
+    /**
+     * Streams a GitHub release document, skipping everything but the tag and asset fields
+     */
+    public static ReleaseIndex parse(Reader reader, String etag) throws IOException {
+        String tag = null;
+        List<Asset> assets = new ArrayList<>();
+        try (JsonReader json = new JsonReader(reader)) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String field = json.nextName();
+                if ("tag_name".equals(field)) {
+                    tag = json.nextString();
+                } else if ("assets".equals(field) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        Asset asset = readAsset(json);
+                        if (asset != null) {
+                            assets.add(asset);
+                        }
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed release document", e);
+        }
+        if (tag == null) {
+            throw new IOException("Release document has no tag_name");
+        }
+        return new ReleaseIndex(tag, etag, assets);
+    }
+    
+    private static Asset readAsset(JsonReader json) throws IOException {
+        String name = null;
+        String url = null;
+        long size = -1;
+        String digest = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String field = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "name":
+                    name = json.nextString();
+                    break;
+                case "browser_download_url":
+                    url = json.nextString();
+                    break;
+                case "size":
+                    size = json.nextLong();
+                    break;
+                case "digest":
+                    digest = json.nextString();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        return name != null && url != null && name.endsWith(".zip") ? new Asset(name, url, size, digest) : null;
+    }
+    
+    /**
+     * Reads an index written by {@link #write}; returns null when missing or unreadable
+     */
+    public static ReleaseIndex read(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!FORMAT.equals(reader.readLine())) {
+                return null;
+            }
+            String tag = reader.readLine();
+            String etag = reader.readLine();
+            List<Asset> assets = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 4) {
+                    assets.add(new Asset(fields[0], fields[1], Long.parseLong(fields[2]),
+                        fields[3].isEmpty() ? null : fields[3]));
+                }
+            }
+            return tag == null ? null : new ReleaseIndex(tag, etag == null || etag.isEmpty() ? null : etag, assets);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Writes the index atomically: format line, tag, ETag, then one line per asset
+     */
+    public void write(Path path) throws IOException {
+        // A unique temp file, so processes sharing the cache never write the same one
+        Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(FORMAT + "\n");
+                writer.write(tag + "\n");
+                writer.write((etag == null ? "" : etag) + "\n");
+                for (Asset asset : assets) {
+                    writer.write(asset.name + "\t" + asset.url + "\t" + asset.size + "\t"
+                        + (asset.digest == null ? "" : asset.digest) + "\n");
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * Maps spec-kit-template-&lt;agent&gt;-&lt;script&gt;-&lt;version&gt;.zip to "&lt;agent&gt;-&lt;script&gt;"
+     */
+    static String keyOf(String name) {
+        if (!name.startsWith(PREFIX) || !name.endsWith(".zip")) {
+            return null;
+        }
+        String rest = name.substring(PREFIX.length(), name.length() - ".zip".length());
+        int versionDash = rest.lastIndexOf('-');
+        return versionDash > 0 ? rest.substring(0, versionDash) : null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+
+/**
+ * Template source backed by a GitHub-style release: GitHub itself or a mirror of it.
+ * The release is resolved once per instance, so several templates share one revalidation.
+ */
+class ReleaseTemplateSource implements TemplateSource {
+    
+    private final String name;
+    private final TemplateCacheService cache;
+    private TemplateCacheService.Release release;
+    
+    ReleaseTemplateSource(String name, TemplateCacheService cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public TemplateCacheService.CachedTemplate fetch(String agent, String scriptType,
+                                                     GithubService.ProgressListener listener) throws IOException {
+        return cache.getTemplate(release(), agent, scriptType, listener);
+    }
+    
+    private synchronized TemplateCacheService.Release release() throws IOException {
+        if (release == null) {
+            release = cache.resolveRelease();
+        }
+        return release;
+    }
+}
@@ -0,0 +1,316 @@
+package com.github.speckit.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the feature directories under specs/: numeric prefix to directories, and which
+ * spec documents each one holds. Replaces the specs/&lt;prefix&gt;-* globs and find scans in
+ * the scripts. For git repositories the index is kept in the git directory and revalidated
+ * by modification time: specs/ is only listed again when its own mtime changes, and a
+ * feature's documents are only checked again when that feature's directory or contracts/
+ * changed. A loaded index is kept in memory as well, so long-running processes skip reading
+ * the index file while specs/ is unchanged.
+ */
+public final class SpecIndex {
+    
+    /**
+     * Documents tracked per feature, in the order check-prerequisites.sh reports them;
+     * contracts/ counts only when it has entries
+     */
+    public static final List<String> DOCS = List.of(
+        "spec.md", "plan.md", "tasks.md", "research.md", "data-model.md", "contracts/", "quickstart.md");
+    
+    private static final String INDEX_FILE = "specify-spec-index";
+    private static final String INDEX_FORMAT = "specify-spec-index 1";
+    private static final long UNKNOWN = -1;
+    // Stamps this recent may not reflect a change made in the same clock tick, so they are not trusted
+    static final long RACY_MILLIS = 2000;
+    private static final Map<Path, SpecIndex> LOADED = new ConcurrentHashMap<>();
+    
+    private final Path specsDir;
+    private final Path indexFile;
+    private final Map<String, Entry> entries = new TreeMap<>();
+    private final Map<String, List<String>> byPrefix = new HashMap<>();
+    private long specsModified = UNKNOWN;
+    private boolean dirty;
+    
+    private static final class Entry {
+        long modified = UNKNOWN;
+        long contractsModified = UNKNOWN;
+        Set<String> docs = Collections.emptySet();
+    }
+    
+    private SpecIndex(Path specsDir, Path indexFile) {
+        this.specsDir = specsDir;
+        this.indexFile = indexFile;
+    }
+    
+    /**
+     * Loads the index for a repository, listing specs/ again only when it changed
+     *
+     * @param gitDir directory to keep the index in, or null to build it in memory only
+     */
+    public static SpecIndex load(Path repoRoot, Path gitDir) throws IOException {
+        Path specsDir = repoRoot.resolve("specs");
+        Path indexFile = gitDir != null ? gitDir.resolve(INDEX_FILE) : null;
+        long specsModified = modified(specsDir);
+        SpecIndex loaded = LOADED.get(specsDir);
+        if (loaded != null && Objects.equals(loaded.indexFile, indexFile)
+                && loaded.specsModified != UNKNOWN && loaded.specsModified == specsModified) {
+            return loaded;
+        }
+        
+        SpecIndex index = new SpecIndex(specsDir, indexFile);
+        if (index.read() != specsModified) {
+            index.relist();
+            index.specsModified = stable(specsModified);
+            index.dirty = true;
+        }
+        index.flush();
+        LOADED.put(specsDir, index);
+        return index;
+    }
+    
+    /**
+     * Feature directory names under specs/, sorted
+     */
+    public Set<String> features() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+    
+    /**
+     * Directories whose names start with the given NNN prefix, sorted; empty when there is none
+     */
+    public List<String> withPrefix(String prefix) {
+        return byPrefix.getOrDefault(prefix, Collections.emptyList());
+    }
+    
+    /**
+     * Prefixes shared by more than one directory, with those directories
+     */
+    public Map<String, List<String>> conflicts() {
+        Map<String, List<String>> conflicts = new TreeMap<>();
+        byPrefix.forEach((prefix, names) -> {
+            if (names.size() > 1) {
+                conflicts.put(prefix, names);
+            }
+        });
+        return conflicts;
+    }
+    
+    /**
+     * Directory for a branch or SPECIFY_FEATURE value, matched by numeric prefix so several
+     * branches can share one spec (004-fix-bug, 004-add-feature). Falls back to the branch
+     * name itself when it has no prefix, nothing matches or the prefix is ambiguous.
+     */
+    public String featureFor(String branch) {
+        String prefix = FeaturePaths.prefixOf(branch);
+        List<String> matches = prefix != null ? withPrefix(prefix) : Collections.emptyList();
+        return matches.size() == 1 ? matches.get(0) : branch;
+    }
+    
+    /**
+     * Highest-numbered NNN-* directory, or null when there is none
+     */
+    public String latest() {
+        String latest = null;
+        int highest = 0;
+        for (String name : entries.keySet()) {
+            int number = FeatureService.numberOf(name);
+            if (number > highest) {
+                highest = number;
+                latest = name;
+            }
+        }
+        return latest;
+    }
+    
+    /**
+     * Highest number used by a NNN-* directory; 0 when there is none
+     */
+    public int highestNumber() {
+        String latest = latest();
+        return latest != null ? FeatureService.numberOf(latest) : 0;
+    }
+    
+    /**
+     * Documents present in a feature directory, checked again only when the directory or its
+     * contracts/ changed since they were recorded
+     *
+     * @return the documents from {@link #DOCS}, or null when specs/ has no such directory
+     */
+    public synchronized Set<String> docs(String feature) throws IOException {
+        Entry entry = entries.get(feature);
+        if (entry == null) {
+            return null;
+        }
+        Path dir = specsDir.resolve(feature);
+        long modified = modified(dir);
+        long contractsModified = modified(dir.resolve("contracts"));
+        if (modified != entry.modified || contractsModified != entry.contractsModified) {
+            entry.docs = scanDocs(dir);
+            entry.modified = stable(modified);
+            entry.contractsModified = stable(contractsModified);
+            dirty = true;
+            flush();
+        }
+        return entry.docs;
+    }
+    
+    /**
+     * Documents present in a directory outside the index, such as specs/&lt;a/b&gt; for a
+     * branch name with slashes
+     */
+    public static Set<String> scanDocs(Path dir) throws IOException {
+        Set<String> docs = new LinkedHashSet<>();
+        for (String doc : DOCS) {
+            if (doc.endsWith("/")) {
+                Path sub = dir.resolve(doc.substring(0, doc.length() - 1));
+                if (Files.isDirectory(sub)) {
+                    try (DirectoryStream<Path> children = Files.newDirectoryStream(sub)) {
+                        if (children.iterator().hasNext()) {
+                            docs.add(doc);
+                        }
+                    }
+                }
+            } else if (Files.isRegularFile(dir.resolve(doc))) {
+                docs.add(doc);
+            }
+        }
+        return Collections.unmodifiableSet(docs);
+    }
+    
+    /**
+     * Lists specs/ again, keeping recorded documents for directories that are still there
+     */
+    private void relist() throws IOException {
+        Map<String, Entry> previous = new HashMap<>(entries);
+        entries.clear();
+        byPrefix.clear();
+        if (!Files.isDirectory(specsDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(specsDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                String name = dir.getFileName().toString();
+                add(name, previous.getOrDefault(name, new Entry()));
+            }
+        }
+    }
+    
+    private void add(String name, Entry entry) {
+        entries.put(name, entry);
+        String prefix = FeaturePaths.prefixOf(name);
+        if (prefix != null) {
+            List<String> names = byPrefix.computeIfAbsent(prefix, key -> new ArrayList<>());
+            names.add(name);
+            names.sort(null);
+        }
+    }
+    
+    /**
+     * Reads the index file into this instance
+     *
+     * @return the recorded specs/ modification time, or {@link #UNKNOWN} when the index is
+     *         missing, unreadable or was built for another specs/ directory
+     */
+    private long read() {
+        if (indexFile == null || !Files.isRegularFile(indexFile)) {
+            return UNKNOWN;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            if (!INDEX_FORMAT.equals(reader.readLine()) || !specsDir.toString().equals(reader.readLine())) {
+                return UNKNOWN;
+            }
+            specsModified = Long.parseLong(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                Entry entry = new Entry();
+                entry.modified = Long.parseLong(fields[1]);
+                entry.contractsModified = Long.parseLong(fields[2]);
+                Set<String> docs = new LinkedHashSet<>();
+                for (String doc : fields[3].split(",")) {
+                    if (DOCS.contains(doc)) {
+                        docs.add(doc);
+                    }
+                }
+                entry.docs = Collections.unmodifiableSet(docs);
+                add(fields[0], entry);
+            }
+            return specsModified;
+        } catch (IOException | RuntimeException e) {
+            entries.clear();
+            byPrefix.clear();
+            return UNKNOWN;
+        }
+    }
+    
+    /**
+     * Writes the index when it changed. Names with tabs or line breaks cannot be stored, so
+     * such repositories keep the index in memory only.
+     */
+    private void flush() throws IOException {
+        if (!dirty || indexFile == null || !Files.isDirectory(indexFile.getParent())) {
+            return;
+        }
+        dirty = false;
+        for (String name : entries.keySet()) {
+            if (name.indexOf('\t') >= 0 || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+                return;
+            }
+        }
+        Path tmp = Files.createTempFile(indexFile.getParent(), INDEX_FILE, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(INDEX_FORMAT + "\n");
+                writer.write(specsDir + "\n");
+                writer.write(specsModified + "\n");
+                for (Map.Entry<String, Entry> feature : entries.entrySet()) {
+                    Entry entry = feature.getValue();
+                    writer.write(feature.getKey() + "\t" + entry.modified + "\t" + entry.contractsModified
+                        + "\t" + String.join(",", entry.docs) + "\n");
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * The stamp, or {@link #UNKNOWN} when it is too recent to rule out a later change in the same tick
+     */
+    private static long stable(long modified) {
+        return modified > System.currentTimeMillis() - RACY_MILLIS ? UNKNOWN : modified;
+    }
+    
+    /**
+     * Modification time in milliseconds, or 0 when the path does not exist
+     */
+    private static long modified(Path path) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+}
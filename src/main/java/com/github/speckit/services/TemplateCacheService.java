@@ -0,0 +1,307 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Persistent template cache layered over GithubService.
+ * Assets are stored as {@code <cacheDir>/<tag>/<asset>.zip} with a {@code .sha256} sidecar,
+ * and the release is kept as a {@link ReleaseIndex} revalidated with If-None-Match, so a warm
+ * lookup downloads nothing.
+ * Downloads land in {@code <asset>.zip.part} first; an interrupted download is resumed from it.
+ * Download, verification and the move into place run under a lock on {@code <asset>.zip.lock},
+ * so processes sharing the cache never write the same .part file at once.
+ */
+public class TemplateCacheService {
+    
+    private static final long DEFAULT_MAX_BYTES = 200L * 1024 * 1024;
+    private static final long DEFAULT_RELEASE_TTL_SECONDS = 300;
+    private static final String INDEX_FILE = "release.index";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final String LOCK_SUFFIX = ".lock";
+    
+    private final GithubService githubService;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final long releaseTtlMillis;
+    private final Set<Path> inUse = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * A release document resolved once, possibly from the offline copy
+     */
+    public static class Release {
+        private final ReleaseIndex index;
+        private final boolean offline;
+        
+        Release(ReleaseIndex index, boolean offline) {
+            this.index = index;
+            this.offline = offline;
+        }
+        
+        public String getTag() { return index.getTag(); }
+        public boolean isOffline() { return offline; }
+    }
+    
+    /**
+     * Outcome of a cache lookup
+     */
+    public static class CachedTemplate {
+        private final Path zipPath;
+        private final String tag;
+        private final boolean hit;
+        private final boolean offline;
+        private final boolean local;
+        
+        CachedTemplate(Path zipPath, String tag, boolean hit, boolean offline) {
+            this(zipPath, tag, hit, offline, false);
+        }
+        
+        CachedTemplate(Path zipPath, String tag, boolean hit, boolean offline, boolean local) {
+            this.zipPath = zipPath;
+            this.tag = tag;
+            this.hit = hit;
+            this.offline = offline;
+            this.local = local;
+        }
+        
+        public Path getZipPath() { return zipPath; }
+        public String getTag() { return tag; }
+        public boolean isHit() { return hit; }
+        public boolean isOffline() { return offline; }
+        /** Read from a local:&lt;path&gt; source rather than from the cache or the network */
+        public boolean isLocal() { return local; }
+    }
+    
+    public TemplateCacheService(GithubService githubService) {
+        this(githubService, defaultCacheDir(), defaultMaxBytes());
+    }
+    
+    public TemplateCacheService(GithubService githubService, Path cacheDir, long maxBytes) {
+        this.githubService = githubService;
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        this.releaseTtlMillis = defaultReleaseTtlSeconds() * 1000;
+    }
+    
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+    
+    /**
+     * Resolves the template through the cache. The returned zip is owned by the cache
+     * and must not be deleted by the caller.
+     */
+    public CachedTemplate getTemplate(String agent, String scriptType) throws IOException {
+        return getTemplate(agent, scriptType, null);
+    }
+    
+    public CachedTemplate getTemplate(String agent, String scriptType, GithubService.ProgressListener listener)
+            throws IOException {
+        return getTemplate(resolveRelease(), agent, scriptType, listener);
+    }
+    
+    /**
+     * Resolves the latest release once, so several templates can be resolved against it.
+     * An index validated within SPECIFY_RELEASE_TTL_SECONDS (default 300) is used without
+     * any request; an older one is revalidated with its ETag.
+     */
+    public Release resolveRelease() throws IOException {
+        Files.createDirectories(cacheDir);
+        Path indexPath = cacheDir.resolve(INDEX_FILE);
+        ReleaseIndex cached = ReleaseIndex.read(indexPath);
+        
+        if (cached != null && System.currentTimeMillis() - lastModified(indexPath).toMillis() < releaseTtlMillis) {
+            return new Release(cached, false);
+        }
+        
+        try {
+            return new Release(revalidateRelease(indexPath, cached), false);
+        } catch (IOException e) {
+            // Network unavailable: fall back to the last known index
+            if (cached == null) {
+                throw e;
+            }
+            return new Release(cached, true);
+        }
+    }
+    
+    public CachedTemplate getTemplate(Release resolved, String agent, String scriptType,
+                                      GithubService.ProgressListener listener) throws IOException {
+        boolean offline = resolved.offline;
+        String tag = resolved.getTag();
+        ReleaseIndex.Asset asset = resolved.index.find(agent, scriptType);
+        String filename = asset.getName();
+        
+        Path tagDir = cacheDir.resolve(safeName(tag));
+        Path zipPath = tagDir.resolve(filename);
+        Path checksumPath = tagDir.resolve(filename + CHECKSUM_SUFFIX);
+        
+        if (isValid(zipPath, checksumPath)) {
+            Files.setLastModifiedTime(zipPath, FileTime.fromMillis(System.currentTimeMillis()));
+            inUse.add(zipPath);
+            return new CachedTemplate(zipPath, tag, true, offline);
+        }
+        if (offline) {
+            throw new IOException("Template not cached and GitHub is unreachable: " + filename);
+        }
+        
+        Files.createDirectories(tagDir);
+        try (FileChannel lockChannel = FileChannel.open(tagDir.resolve(filename + LOCK_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            lockChannel.lock();                         // Released when the channel closes
+            // Another process may have finished the same download while this one waited
+            if (isValid(zipPath, checksumPath)) {
+                inUse.add(zipPath);
+                return new CachedTemplate(zipPath, tag, true, offline);
+            }
+            
+            Path partPath = tagDir.resolve(filename + ".part");
+            githubService.downloadAsset(asset.getUrl(), partPath, listener);
+            
+            String checksum = sha256(partPath);
+            String expected = asset.getSha256();
+            if (expected != null && !expected.equalsIgnoreCase(checksum)) {
+                Files.deleteIfExists(partPath);
+                throw new IOException("Checksum mismatch for " + filename);
+            }
+            
+            Files.move(partPath, zipPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(checksumPath, checksum);
+        }
+        inUse.add(zipPath);
+        evict();
+        
+        return new CachedTemplate(zipPath, tag, false, offline);
+    }
+    
+    private ReleaseIndex revalidateRelease(Path indexPath, ReleaseIndex cached) throws IOException {
+        ReleaseIndex fetched = githubService.fetchReleaseIndex(cached != null ? cached.getEtag() : null);
+        if (fetched == null) {
+            // 304: the stored index is current; its mtime records the validation
+            Files.setLastModifiedTime(indexPath, FileTime.fromMillis(System.currentTimeMillis()));
+            return cached;
+        }
+        fetched.write(indexPath);
+        return fetched;
+    }
+    
+    private boolean isValid(Path zipPath, Path checksumPath) throws IOException {
+        if (!Files.exists(zipPath) || !Files.exists(checksumPath)) {
+            return false;
+        }
+        return Files.readString(checksumPath).trim().equalsIgnoreCase(sha256(zipPath));
+    }
+    
+    /**
+     * Removes least recently used zips until the cache fits its size bound; zips handed
+     * out by this instance are never evicted
+     */
+    private void evict() throws IOException {
+        List<Path> zips = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(cacheDir, 2)) {
+            stream.filter(p -> p.toString().endsWith(".zip")).forEach(zips::add);
+        }
+        
+        long total = 0;
+        for (Path zip : zips) {
+            total += Files.size(zip);
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        
+        zips.sort(Comparator.comparing(TemplateCacheService::lastModified));
+        for (Path zip : zips) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (inUse.contains(zip)) {
+                continue;
+            }
+            total -= Files.size(zip);
+            Files.deleteIfExists(zip);
+            Files.deleteIfExists(zip.resolveSibling(zip.getFileName() + CHECKSUM_SUFFIX));
+        }
+    }
+    
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+    
+    static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static String safeName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+    
+    static Path defaultCacheDir() {
+        String override = System.getenv("SPECIFY_CACHE_DIR");
+        if (override != null && !override.isBlank()) {
+            return Paths.get(override);
+        }
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        if (xdg != null && !xdg.isBlank()) {
+            return Paths.get(xdg, "specify");
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "specify");
+    }
+    
+    private static long defaultReleaseTtlSeconds() {
+        String override = System.getenv("SPECIFY_RELEASE_TTL_SECONDS");
+        if (override != null) {
+            try {
+                return Long.parseLong(override.trim());
+            } catch (NumberFormatException e) {
+                // Fall through to default
+            }
+        }
+        return DEFAULT_RELEASE_TTL_SECONDS;
+    }
+    
+    static long defaultMaxBytes() {
+        String override = System.getenv("SPECIFY_CACHE_MAX_MB");
+        if (override != null) {
+            try {
+                return Long.parseLong(override.trim()) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                // Fall through to default
+            }
+        }
+        return DEFAULT_MAX_BYTES;
+    }
+}
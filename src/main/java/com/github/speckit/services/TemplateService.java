@@ -1,11 +1,32 @@
 package com.github.speckit.services;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.FileSystems;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -13,27 +34,377 @@ import java.util.zip.ZipInputStream;
  */
 public class TemplateService {
     
-    public void extractTemplate(Path zipPath, Path targetPath, boolean mergeMode) throws IOException {
+    // Below this many files the thread hand-off costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 16;
+    private static final int MAX_WORKERS = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SCRIPTS_PREFIX = ".specify/scripts/";
+    
+    private final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    
+    /**
+     * One bounded pool for every extraction in the process, so concurrent batch projects
+     * share MAX_WORKERS writers instead of each starting its own; idle threads exit
+     */
+    private static class ExtractPool {
+        static final ThreadPoolExecutor EXECUTOR = create();
+        
+        private static ThreadPoolExecutor create() {
+            int workers = Math.min(MAX_WORKERS, Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "specify-extract");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+    
+    /**
+     * Per-file outcome counts of an extraction
+     */
+    public static class ExtractResult {
+        private final AtomicInteger added = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private final AtomicInteger executables = new AtomicInteger();
+        
+        public int getAdded() { return added.get(); }
+        public int getUpdated() { return updated.get(); }
+        public int getUnchanged() { return unchanged.get(); }
+        public int getExecutables() { return executables.get(); }
+    }
+    
+    /**
+     * Receives extraction progress from the worker threads; filesTotal is -1 while streaming
+     */
+    @FunctionalInterface
+    public interface ExtractListener {
+        void onProgress(long filesDone, long filesTotal);
+    }
+    
+    /**
+     * State shared by the workers of one extraction
+     */
+    private static class Extraction {
+        final Path targetPath;
+        final boolean mergeMode;
+        final Map<String, Integer> unixModes;
+        final ExtractListener listener;
+        final ExtractResult result = new ExtractResult();
+        final AtomicLong filesDone = new AtomicLong();
+        long filesTotal = -1;
+        
+        Extraction(Path targetPath, boolean mergeMode, Map<String, Integer> unixModes, ExtractListener listener) {
+            this.targetPath = targetPath;
+            this.mergeMode = mergeMode;
+            this.unixModes = unixModes;
+            this.listener = listener;
+        }
+        
+        void fileDone() {
+            long done = filesDone.incrementAndGet();
+            if (listener != null) {
+                listener.onProgress(done, filesTotal);
+            }
+        }
+    }
+    
+    public ExtractResult extractTemplate(Path zipPath, Path targetPath, boolean mergeMode) throws IOException {
+        return extractTemplate(zipPath, targetPath, mergeMode, null);
+    }
+    
+    public ExtractResult extractTemplate(Path zipPath, Path targetPath, boolean mergeMode, ExtractListener listener)
+            throws IOException {
+        ExtractResult result = extractArchive(zipPath, targetPath, mergeMode, listener);
+        
+        // Clean up zip file
+        Files.deleteIfExists(zipPath);
+        return result;
+    }
+    
+    /**
+     * Extracts without deleting the archive, for zips owned by the template cache.
+     * Reads the central directory, creates the directory tree once, then writes
+     * file entries in parallel on the shared bounded pool. In merge mode files whose size and
+     * CRC32 already match the entry are left untouched and changed files are replaced
+     * atomically. Executable bits are applied as each file is written, from the
+     * entry's Unix mode when the archive carries one and for .sh scripts under
+     * .specify/scripts, so no separate chmod pass is needed.
+     */
+    public ExtractResult extractArchive(Path zipPath, Path targetPath, boolean mergeMode) throws IOException {
+        return extractArchive(zipPath, targetPath, mergeMode, null);
+    }
+    
+    /**
+     * @param listener receives a call per file entry once the entry count is known; may be null
+     */
+    public ExtractResult extractArchive(Path zipPath, Path targetPath, boolean mergeMode, ExtractListener listener)
+            throws IOException {
+        if (!mergeMode) {
+            Files.createDirectories(targetPath);
+        }
+        
+        Extraction extraction = new Extraction(targetPath, mergeMode,
+            posix ? ZipUnixModes.read(zipPath) : Collections.emptyMap(), listener);
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            TreeSet<Path> dirs = new TreeSet<>();
+            List<ZipEntry> files = new ArrayList<>();
+            
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Path destPath = resolveEntry(targetPath, entry);
+                if (entry.isDirectory()) {
+                    dirs.add(destPath);
+                } else {
+                    dirs.add(destPath.getParent());
+                    files.add(entry);
+                }
+            }
+            
+            createDirectoryTree(dirs);
+            
+            extraction.filesTotal = files.size();
+            if (files.size() < PARALLEL_THRESHOLD) {
+                for (ZipEntry entry : files) {
+                    writeEntry(zipFile, entry, extraction);
+                    extraction.fileDone();
+                }
+            } else {
+                writeEntriesInParallel(zipFile, files, extraction);
+            }
+        }
+        return extraction.result;
+    }
+    
+    /**
+     * Extracts entries as they arrive, so the source may be a live download stream.
+     * Local headers carry no Unix mode, so only the .sh rule sets executable bits here.
+     */
+    public ExtractResult extractTemplate(InputStream in, Path targetPath, boolean mergeMode) throws IOException {
+        return extractTemplate(in, targetPath, mergeMode, null);
+    }
+    
+    public ExtractResult extractTemplate(InputStream in, Path targetPath, boolean mergeMode, ExtractListener listener)
+            throws IOException {
         if (!mergeMode) {
             Files.createDirectories(targetPath);
         }
         
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipPath.toFile()))) {
+        Extraction extraction = new Extraction(targetPath, mergeMode, Collections.emptyMap(), listener);
+        ExtractResult result = extraction.result;
+        try (ZipInputStream zis = new ZipInputStream(in)) {
             ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
-                Path destPath = targetPath.resolve(entry.getName());
+                Path destPath = resolveEntry(targetPath, entry);
                 
                 if (entry.isDirectory()) {
                     Files.createDirectories(destPath);
                 } else {
                     Files.createDirectories(destPath.getParent());
-                    Files.copy(zis, destPath, StandardCopyOption.REPLACE_EXISTING);
+                    if (mergeMode) {
+                        mergeStreamEntry(zis, destPath, result);
+                    } else {
+                        Files.copy(zis, destPath, StandardCopyOption.REPLACE_EXISTING);
+                        result.added.incrementAndGet();
+                    }
+                    applyPermissions(entry.getName(), destPath, extraction);
+                    extraction.fileDone();
                 }
                 zis.closeEntry();
             }
         }
+        return result;
+    }
+    
+    private void writeEntriesInParallel(ZipFile zipFile, List<ZipEntry> files, Extraction extraction)
+            throws IOException {
+        List<Future<Void>> futures = new ArrayList<>(files.size());
+        try {
+            for (ZipEntry entry : files) {
+                futures.add(ExtractPool.EXECUTOR.submit(() -> {
+                    writeEntry(zipFile, entry, extraction);
+                    extraction.fileDone();
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Extraction failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction interrupted", e);
+        } finally {
+            // The pool is shared, so only this extraction's unfinished entries are cancelled
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+    
+    private void writeEntry(ZipFile zipFile, ZipEntry entry, Extraction extraction) throws IOException {
+        Path destPath = resolveEntry(extraction.targetPath, entry);
+        ExtractResult result = extraction.result;
         
-        // Clean up zip file
-        Files.deleteIfExists(zipPath);
+        if (!extraction.mergeMode) {
+            try (InputStream in = zipFile.getInputStream(entry)) {
+                Files.copy(in, destPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            result.added.incrementAndGet();
+            applyPermissions(entry.getName(), destPath, extraction);
+            return;
+        }
+        
+        boolean exists = Files.exists(destPath);
+        if (exists && entry.getSize() >= 0 && entry.getCrc() >= 0
+                && Files.size(destPath) == entry.getSize() && crc32(destPath) == entry.getCrc()) {
+            result.unchanged.incrementAndGet();
+            applyPermissions(entry.getName(), destPath, extraction);
+            return;
+        }
+        
+        Path tmpPath = tempSibling(destPath);
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            Files.copy(in, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        replaceAtomically(tmpPath, destPath, exists);
+        (exists ? result.updated : result.added).incrementAndGet();
+        applyPermissions(entry.getName(), destPath, extraction);
+    }
+    
+    /**
+     * Adds execute bits to an executable entry, keeping the read and write bits the file was
+     * created with, so the umask still applies. A file that already has them is left alone.
+     */
+    private void applyPermissions(String entryName, Path destPath, Extraction extraction) throws IOException {
+        if (!posix) {
+            return;
+        }
+        int executeBits = executeBits(entryName, extraction.unixModes.get(entryName));
+        if (executeBits == 0) {
+            return;
+        }
+        Set<PosixFilePermission> current = Files.getPosixFilePermissions(destPath);
+        Set<PosixFilePermission> perms = EnumSet.noneOf(PosixFilePermission.class);
+        perms.addAll(current);
+        if ((executeBits & 0100) != 0) {
+            perms.add(PosixFilePermission.OWNER_EXECUTE);
+        }
+        if ((executeBits & 0010) != 0) {
+            perms.add(PosixFilePermission.GROUP_EXECUTE);
+        }
+        if ((executeBits & 0001) != 0) {
+            perms.add(PosixFilePermission.OTHERS_EXECUTE);
+        }
+        if (perms.equals(current)) {
+            return;
+        }
+        Files.setPosixFilePermissions(destPath, perms);
+        extraction.result.executables.incrementAndGet();
+    }
+    
+    /**
+     * Execute bits for an entry: a+x for scripts under .specify/scripts, else the execute bits
+     * of the archive's Unix mode plus the owner's; 0 when the entry is not executable.
+     * Read and write bits from the archive are never applied.
+     */
+    private static int executeBits(String entryName, Integer unixMode) {
+        if (entryName.startsWith(SCRIPTS_PREFIX) && entryName.endsWith(".sh")) {
+            return 0111;
+        }
+        if (unixMode != null && (unixMode & 0111) != 0) {
+            return (unixMode & 0111) | 0100;
+        }
+        return 0;
+    }
+    
+    /**
+     * Stream entries carry no reliable CRC up front, so the entry is spooled next to
+     * the destination and compared before deciding whether to replace it
+     */
+    private void mergeStreamEntry(InputStream zis, Path destPath, ExtractResult result) throws IOException {
+        Path tmpPath = tempSibling(destPath);
+        CRC32 crc = new CRC32();
+        try (CheckedInputStream in = new CheckedInputStream(zis, crc) {
+            @Override
+            public void close() {
+                // Leave the ZipInputStream open for the next entry
+            }
+        }) {
+            Files.copy(in, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        boolean exists = Files.exists(destPath);
+        if (exists && Files.size(destPath) == Files.size(tmpPath) && crc32(destPath) == crc.getValue()) {
+            Files.delete(tmpPath);
+            result.unchanged.incrementAndGet();
+            return;
+        }
+        
+        replaceAtomically(tmpPath, destPath, exists);
+        (exists ? result.updated : result.added).incrementAndGet();
+    }
+    
+    private static Path tempSibling(Path destPath) {
+        return destPath.resolveSibling("." + destPath.getFileName() + ".specify-tmp");
+    }
+    
+    /**
+     * Moves the temp file over the destination, keeping the existing file's permissions
+     */
+    private static void replaceAtomically(Path tmpPath, Path destPath, boolean exists) throws IOException {
+        try {
+            if (exists) {
+                PosixFileAttributeView view = Files.getFileAttributeView(destPath, PosixFileAttributeView.class);
+                if (view != null) {
+                    Files.setPosixFilePermissions(tmpPath, view.readAttributes().permissions());
+                }
+            }
+            Files.move(tmpPath, destPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmpPath);
+            throw e;
+        }
+    }
+    
+    private static long crc32(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Creates only the leaf directories; createDirectories fills in the parents
+     */
+    private static void createDirectoryTree(TreeSet<Path> dirs) throws IOException {
+        Path previous = null;
+        for (Path dir : dirs.descendingSet()) {
+            if (previous == null || !previous.startsWith(dir)) {
+                Files.createDirectories(dir);
+            }
+            previous = dir;
+        }
+    }
+    
+    private static Path resolveEntry(Path targetPath, ZipEntry entry) throws IOException {
+        Path destPath = targetPath.resolve(entry.getName()).normalize();
+        if (!destPath.startsWith(targetPath.normalize())) {
+            throw new IOException("Zip entry outside target directory: " + entry.getName());
+        }
+        return destPath;
     }
 }
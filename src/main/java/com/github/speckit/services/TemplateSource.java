@@ -0,0 +1,22 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+
+/**
+ * A place templates can be fetched from: GitHub releases, an HTTP mirror, or a local
+ * directory or zip. Sources are created by {@link TemplateSources}.
+ */
+public interface TemplateSource {
+    
+    /**
+     * Short description used in messages, e.g. "github" or "local(/opt/templates)"
+     */
+    String getName();
+    
+    /**
+     * Returns the template zip for the agent/script pair. The zip is owned by the source
+     * and must not be deleted by the caller.
+     */
+    TemplateCacheService.CachedTemplate fetch(String agent, String scriptType,
+                                              GithubService.ProgressListener listener) throws IOException;
+}
@@ -0,0 +1,113 @@
+package com.github.speckit.services;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds template sources from specs given with --source or SPECIFY_TEMPLATE_SOURCE:
+ * <ul>
+ *   <li>{@code github} - GitHub releases (the default)</li>
+ *   <li>{@code mirror:<url>} or a bare http(s) URL - a mirror serving the GitHub API path
+ *       {@code /repos/github/spec-kit/releases/latest} and the github.com download paths
+ *       under one base URL</li>
+ *   <li>{@code local:<path>} or a bare path - a directory of release zips or a single zip</li>
+ * </ul>
+ * Several specs form a fallback chain, hedged after SPECIFY_SOURCE_HEDGE_MS (default 3000).
+ */
+public final class TemplateSources {
+    
+    public static final String ENV_SOURCE = "SPECIFY_TEMPLATE_SOURCE";
+    private static final String ENV_HEDGE = "SPECIFY_SOURCE_HEDGE_MS";
+    private static final long DEFAULT_HEDGE_MILLIS = 3000;
+    
+    private TemplateSources() {
+    }
+    
+    /**
+     * Uses the default cache location; specs fall back to SPECIFY_TEMPLATE_SOURCE, then github
+     */
+    public static TemplateSource create(List<String> specs, GithubService githubService) {
+        return create(specs, githubService, TemplateCacheService.defaultCacheDir(),
+            TemplateCacheService.defaultMaxBytes());
+    }
+    
+    public static TemplateSource create(List<String> specs, GithubService githubService, Path cacheDir,
+                                        long maxBytes) {
+        List<TemplateSource> sources = new ArrayList<>();
+        for (String spec : effectiveSpecs(specs)) {
+            sources.add(parse(spec, githubService, cacheDir, maxBytes));
+        }
+        return sources.size() == 1 ? sources.get(0) : new FallbackTemplateSource(sources, hedgeMillis());
+    }
+    
+    /**
+     * Whether a source was chosen with --source or SPECIFY_TEMPLATE_SOURCE; a chosen source
+     * takes precedence over the embedded templates
+     */
+    public static boolean isConfigured(List<String> specs) {
+        String configured = System.getenv(ENV_SOURCE);
+        return !specs.isEmpty() || (configured != null && !configured.isBlank());
+    }
+    
+    /**
+     * Whether the effective specs name GitHub only, the one source that can be streamed
+     */
+    public static boolean isGithubOnly(List<String> specs) {
+        return effectiveSpecs(specs).stream().allMatch("github"::equals);
+    }
+    
+    private static List<String> effectiveSpecs(List<String> specs) {
+        List<String> effective = new ArrayList<>();
+        if (specs.isEmpty()) {
+            String configured = System.getenv(ENV_SOURCE);
+            if (configured != null && !configured.isBlank()) {
+                effective.addAll(Arrays.asList(configured.split(",")));
+            } else {
+                effective.add("github");
+            }
+        } else {
+            effective.addAll(specs);
+        }
+        effective.replaceAll(String::trim);
+        return effective;
+    }
+    
+    private static TemplateSource parse(String spec, GithubService githubService, Path cacheDir, long maxBytes) {
+        if (spec.isEmpty()) {
+            throw new IllegalArgumentException("Empty template source");
+        }
+        if ("github".equals(spec)) {
+            return new ReleaseTemplateSource("github",
+                new TemplateCacheService(githubService, cacheDir, maxBytes));
+        }
+        
+        String url = spec.startsWith("mirror:") ? spec.substring("mirror:".length()) : spec;
+        if (url.startsWith("http://") || url.startsWith("https://")) {
+            // Each mirror keeps its own release document and zips next to the GitHub cache
+            Path mirrorDir = cacheDir.resolve("mirrors").resolve(url.replaceAll("[^A-Za-z0-9._-]", "_"));
+            return new ReleaseTemplateSource("mirror(" + url + ")",
+                new TemplateCacheService(new GithubService(url, url), mirrorDir, maxBytes));
+        }
+        if (spec.startsWith("mirror:")) {
+            throw new IllegalArgumentException("Mirror source needs an http(s) URL: " + spec);
+        }
+        
+        String path = spec.startsWith("local:") ? spec.substring("local:".length()) : spec;
+        return new LocalTemplateSource(Paths.get(path));
+    }
+    
+    private static long hedgeMillis() {
+        String override = System.getenv(ENV_HEDGE);
+        if (override != null) {
+            try {
+                return Long.parseLong(override.trim());
+            } catch (NumberFormatException e) {
+                // Fall through to default
+            }
+        }
+        return DEFAULT_HEDGE_MILLIS;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.speckit.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads Unix permission bits from a zip central directory.
+ * java.util.zip.ZipEntry does not expose external file attributes, so the
+ * central directory is scanned once here; archives it cannot parse (ZIP64,
+ * truncated) simply yield no modes and callers fall back to name rules.
+ */
+final class ZipUnixModes {
+    
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int EOCD_MIN_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int CEN_HEADER_SIZE = 46;
+    private static final int HOST_UNIX = 3;
+    
+    private ZipUnixModes() {
+    }
+    
+    /**
+     * @return entry name to permission bits (e.g. 0755) for entries made on a Unix host
+     */
+    static Map<String, Integer> read(Path zipPath) throws IOException {
+        Map<String, Integer> modes = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(zipPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < EOCD_MIN_SIZE) {
+                return modes;
+            }
+            
+            // Locate the end-of-central-directory record, which may be followed by a comment
+            int tailSize = (int) Math.min(size, EOCD_MIN_SIZE + MAX_COMMENT_SIZE);
+            ByteBuffer tail = readFully(channel, size - tailSize, tailSize);
+            int eocd = -1;
+            for (int i = tailSize - EOCD_MIN_SIZE; i >= 0; i--) {
+                if (tail.getInt(i) == EOCD_SIGNATURE) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                return modes;
+            }
+            
+            int entryCount = Short.toUnsignedInt(tail.getShort(eocd + 10));
+            long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+            long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+            if (entryCount == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL
+                    || cenOffset + cenSize > size) {
+                return modes;
+            }
+            
+            ByteBuffer cen = readFully(channel, cenOffset, (int) cenSize);
+            int pos = 0;
+            for (int i = 0; i < entryCount && pos + CEN_HEADER_SIZE <= cenSize; i++) {
+                if (cen.getInt(pos) != CEN_SIGNATURE) {
+                    break;
+                }
+                int host = Short.toUnsignedInt(cen.getShort(pos + 4)) >> 8;
+                int nameLength = Short.toUnsignedInt(cen.getShort(pos + 28));
+                int extraLength = Short.toUnsignedInt(cen.getShort(pos + 30));
+                int commentLength = Short.toUnsignedInt(cen.getShort(pos + 32));
+                int externalAttributes = cen.getInt(pos + 38);
+                
+                int mode = (externalAttributes >>> 16) & 07777;
+                if (host == HOST_UNIX && mode != 0 && pos + CEN_HEADER_SIZE + nameLength <= cenSize) {
+                    byte[] name = new byte[nameLength];
+                    cen.get(pos + CEN_HEADER_SIZE, name);
+                    modes.put(new String(name, StandardCharsets.UTF_8), mode);
+                }
+                pos += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+            }
+        }
+        return modes;
+    }
+    
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of zip file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -8,13 +8,13 @@ import org.fusesource.jansi.AnsiConsole;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
 // 导入集合类
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
-
-// 静态导入 ANSI 方法，简化调用
-import static org.fusesource.jansi.Ansi.ansi;
+// 导入并发工具类
+import java.util.concurrent.TimeUnit;
 
 /**
  * 控制台工具类，提供彩色输出和用户交互功能
@@ -22,9 +22,41 @@ import static org.fusesource.jansi.Ansi.ansi;
  */
 public class ConsoleUtils {
 
-    // 静态初始化块，安装 ANSI 控制台支持
-    static {
-        AnsiConsole.systemInstall();                     // 启用 ANSI 颜色支持
+    // 工具探测的默认超时时间（秒），防止挂起的 --version 阻塞整个命令
+    public static final long DEFAULT_TOOL_TIMEOUT_SECONDS = 10;
+
+    // ANSI 控制台是否已安装；延迟到第一次彩色输出，--help、--version 等不加载 Jansi
+    private static volatile boolean ansiInstalled;
+
+    // 进度显示，第一次开始任务时创建；有进行中的任务时其他输出都经过它，避免打乱进度行
+    private static volatile Progress progress;
+
+    /**
+     * 获取 ANSI 构建器，首次调用时安装 ANSI 控制台支持
+     * @return ANSI 构建器
+     */
+    private static Ansi ansi() {
+        if (!ansiInstalled) {
+            synchronized (ConsoleUtils.class) {
+                if (!ansiInstalled) {
+                    AnsiConsole.systemInstall();         // 启用 ANSI 颜色支持
+                    ansiInstalled = true;
+                }
+            }
+        }
+        return Ansi.ansi();
+    }
+
+    /**
+     * 不安装 ANSI 控制台，直接输出颜色代码或纯文本，由调用方决定如何显示
+     * 守护进程用它把每个请求的输出原样交给客户端终端
+     * 跳过安装对整个进程生效：ansiInstalled 只会从 false 变为 true，之后任何输出都不会再调用
+     * AnsiConsole.systemInstall()；颜色开关由 Jansi 按线程记录，只影响当前线程（及其创建的线程）
+     * @param colors 是否输出颜色代码
+     */
+    public static void useRawOutput(boolean colors) {
+        ansiInstalled = true;                            // 进程级：跳过 AnsiConsole.systemInstall()，避免替换 System.out
+        Ansi.setEnabled(colors);                         // 线程级：Jansi 用 InheritableThreadLocal 记录是否启用颜色
     }
 
     /**
@@ -32,7 +64,7 @@ public class ConsoleUtils {
      * @param message 要显示的消息
      */
     public static void info(String message) {
-        System.out.println(ansi().fgCyan().a(message).reset());  // 青色文本输出后重置颜色
+        println(System.out, ansi().fgCyan().a(message).reset());  // 青色文本输出后重置颜色
     }
 
     /**
@@ -40,7 +72,7 @@ public class ConsoleUtils {
      * @param message 要显示的消息
      */
     public static void success(String message) {
-        System.out.println(ansi().fgGreen().a("✓ " + message).reset());  // 绿色文本加勾号前缀
+        println(System.out, ansi().fgGreen().a("✓ " + message).reset());  // 绿色文本加勾号前缀
     }
 
     /**
@@ -48,7 +80,7 @@ public class ConsoleUtils {
      * @param message 要显示的错误消息
      */
     public static void error(String message) {
-        System.err.println(ansi().fgRed().a("Error: " + message).reset());  // 红色错误文本输出到 stderr
+        println(System.err, ansi().fgRed().a("Error: " + message).reset());  // 红色错误文本输出到 stderr
     }
 
     /**
@@ -56,23 +88,46 @@ public class ConsoleUtils {
      * @param message 要显示的警告消息
      */
     public static void warning(String message) {
-        System.out.println(ansi().fgYellow().a("Warning: " + message).reset());  // 黄色警告文本
+        println(System.out, ansi().fgYellow().a("Warning: " + message).reset());  // 黄色警告文本
     }
 
     /**
-     * 开始进度显示（青色，不换行）
-     * @param message 进度消息
+     * 开始一个没有计量的任务，结束时调用 done 输出"名称... 消息"
+     * @param label 任务名称
+     * @return 任务
      */
-    public static void startProgress(String message) {
-        System.out.print(ansi().fgCyan().a(message + "...").reset());  // 青色文本加省略号，不换行
+    public static Progress.Task startTask(String label) {
+        return startTask(label, Progress.Unit.NONE);
     }
 
     /**
-     * 完成进度显示（绿色，换行）
-     * @param message 完成消息
+     * 开始一个带进度的任务；终端中实时显示数量、速度和剩余时间，多个任务各占一行
+     * @param label 任务名称
+     * @param unit 计量单位
+     * @return 任务
      */
-    public static void completeProgress(String message) {
-        System.out.println(ansi().fgGreen().a(" " + message).reset());  // 绿色完成文本并换行
+    public static Progress.Task startTask(String label, Progress.Unit unit) {
+        ansi();                                          // 确保 ANSI 控制台已安装
+        if (progress == null) {
+            synchronized (ConsoleUtils.class) {
+                if (progress == null) {
+                    String term = System.getenv("TERM");
+                    // 只有标准输入输出都是终端时才实时重绘，CI 日志中逐行输出
+                    progress = new Progress(System.console() != null && !"dumb".equals(term));
+                }
+            }
+        }
+        return progress.start(label, unit);
+    }
+
+    // 有进行中的任务时先清除进度行再输出，输出后重绘
+    private static void println(PrintStream stream, Object line) {
+        Progress current = progress;
+        if (current != null && current.isActive()) {
+            current.println(stream, line);
+        } else {
+            stream.println(line);
+        }
     }
 
     /**
@@ -118,21 +173,47 @@ public class ConsoleUtils {
     }
 
     /**
-     * 检查指定工具是否可用
+     * 通过 PATH 索引快速判断工具是否已安装，不启动任何进程
+     * @param toolName 工具名称
+     * @return 工具是否存在于 PATH 中
+     */
+    public static boolean isToolInstalled(String toolName) {
+        return ToolResolver.getDefault().isAvailable(toolName);  // 使用共享的 PATH 索引
+    }
+
+    /**
+     * 检查指定工具是否可用，使用默认超时时间
      * @param toolName 工具名称
      * @return 工具是否可用
      */
     public static boolean checkTool(String toolName) {
+        return checkTool(toolName, DEFAULT_TOOL_TIMEOUT_SECONDS, TimeUnit.SECONDS);  // 使用默认超时
+    }
+
+    /**
+     * 检查指定工具是否可用，超时后强制结束进程并视为不可用
+     * @param toolName 工具名称
+     * @param timeout 超时时长
+     * @param unit 超时时间单位
+     * @return 工具是否可用
+     */
+    public static boolean checkTool(String toolName, long timeout, TimeUnit unit) {
         try {
             // 创建进程构建器，执行工具的版本命令
             ProcessBuilder pb = new ProcessBuilder(toolName, "--version");
-            pb.redirectOutput(ProcessBuilder.Redirect.PIPE);   // 重定向标准输出到管道
-            pb.redirectError(ProcessBuilder.Redirect.PIPE);    // 重定向错误输出到管道
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD); // 丢弃标准输出，避免管道写满阻塞
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);  // 丢弃错误输出
             Process process = pb.start();                      // 启动进程
-            int exitCode = process.waitFor();                  // 等待进程完成并获取退出码
-            return exitCode == 0;                              // 退出码为0表示成功
-        } catch (IOException | InterruptedException e) {
+            if (!process.waitFor(timeout, unit)) {             // 在超时时间内等待进程完成
+                process.destroyForcibly();                     // 超时则强制结束进程
+                return false;                                   // 超时视为不可用
+            }
+            return process.exitValue() == 0;                   // 退出码为0表示成功
+        } catch (IOException e) {
             return false;                                       // 发生异常表示工具不可用
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();                // 恢复中断状态
+            return false;                                       // 被中断视为不可用
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.github.speckit.utils;
+
+// 导入 Java IO 异常类
+import java.io.IOException;
+// 导入 Java NIO 文件操作类
+import java.nio.file.Files;
+import java.nio.file.Path;
+// 导入集合与流处理类
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 文件工具类
+ * 提供目录的递归删除
+ * File helpers shared by the commands and services
+ */
+public final class FileUtils {
+
+    private FileUtils() {
+    }
+
+    /**
+     * 递归删除文件或目录，路径不存在时什么也不做
+     * @param path 要删除的文件或目录
+     * @throws IOException 任一文件删除失败时抛出
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            // 先删除子项，再删除目录本身
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * 尽力递归删除，忽略失败，用于清理临时目录
+     * @param path 要删除的文件或目录
+     */
+    public static void deleteQuietly(Path path) {
+        try {
+            deleteRecursively(path);
+        } catch (IOException e) {
+            // 临时文件残留不影响结果
+        }
+    }
+}
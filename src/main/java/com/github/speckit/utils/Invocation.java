@@ -0,0 +1,69 @@
+package com.github.speckit.utils;
+
+// 导入 Java NIO 文件路径类
+import java.nio.file.Path;
+import java.nio.file.Paths;
+// 导入集合类
+import java.util.Map;
+// 导入并发工具类
+import java.util.concurrent.Callable;
+
+/**
+ * 当前调用的工作目录和环境变量
+ * 直接运行时就是本进程的值；守护进程执行转发的请求时换成客户端进程的值
+ * Working directory and environment of the current invocation
+ */
+public final class Invocation {
+
+    // 当前线程正在处理的转发请求，直接运行时为空
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+    private final Path workingDirectory;                 // 客户端工作目录
+    private final Map<String, String> environment;       // 客户端环境变量
+
+    private Invocation(Path workingDirectory, Map<String, String> environment) {
+        this.workingDirectory = workingDirectory;
+        this.environment = environment;
+    }
+
+    /**
+     * 获取当前调用的工作目录
+     * @return 绝对路径形式的工作目录
+     */
+    public static Path workingDirectory() {
+        Invocation current = CURRENT.get();
+        return current != null ? current.workingDirectory : Paths.get("").toAbsolutePath();
+    }
+
+    /**
+     * 获取当前调用的环境变量
+     * @param name 变量名
+     * @return 变量值，未设置时返回 null
+     */
+    public static String getenv(String name) {
+        Invocation current = CURRENT.get();
+        return current != null ? current.environment.get(name) : System.getenv(name);
+    }
+
+    /**
+     * 以给定的工作目录和环境变量在当前线程执行任务
+     * @param workingDirectory 工作目录
+     * @param environment 环境变量
+     * @param task 要执行的任务
+     * @return 任务结果
+     * @throws Exception 任务抛出的异常
+     */
+    public static <T> T with(Path workingDirectory, Map<String, String> environment, Callable<T> task) throws Exception {
+        Invocation previous = CURRENT.get();
+        CURRENT.set(new Invocation(workingDirectory, Map.copyOf(environment)));
+        try {
+            return task.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.speckit.utils;
+
+// 导入 JSON 处理类
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+// 导入 Java IO 相关类
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+// 导入集合类
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分阶段性能指标记录器，记录每个阶段的耗时、传输字节数和写入文件数
+ * Per-phase metrics: wall time, bytes transferred and files written
+ */
+public class PhaseMetrics {
+
+    /**
+     * 单个阶段的指标，使用 try-with-resources 包裹阶段代码即可自动计时
+     */
+    public static class Phase implements AutoCloseable {
+        private final String name;                            // 阶段名称
+        private final long startNanos;                        // 开始时间（纳秒）
+        private long elapsedNanos = -1;                       // 耗时，未结束时为 -1
+        private final AtomicLong bytes = new AtomicLong();    // 传输字节数
+        private final AtomicLong files = new AtomicLong();    // 写入文件数
+
+        private Phase(String name) {
+            this.name = name;
+            this.startNanos = System.nanoTime();
+        }
+
+        public void addBytes(long count) { bytes.addAndGet(count); }        // 累加传输字节数
+        public void addFiles(long count) { files.addAndGet(count); }        // 累加写入文件数
+
+        /**
+         * 包装输入流，读取的字节会计入本阶段
+         * @param in 原始输入流
+         * @return 计数输入流
+         */
+        public InputStream count(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        bytes.incrementAndGet();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytes.addAndGet(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * 结束阶段计时，重复调用无副作用
+         */
+        @Override
+        public void close() {
+            if (elapsedNanos < 0) {
+                elapsedNanos = System.nanoTime() - startNanos;
+            }
+        }
+
+        // Getter 方法，获取阶段指标
+        public String getName() { return name; }
+        public long getBytes() { return bytes.get(); }
+        public long getFiles() { return files.get(); }
+
+        /**
+         * 获取阶段耗时（毫秒），未结束的阶段返回截至当前的耗时
+         * @return 耗时毫秒数
+         */
+        public double getMillis() {
+            long nanos = elapsedNanos < 0 ? System.nanoTime() - startNanos : elapsedNanos;
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private final long startNanos = System.nanoTime();       // 总计时起点
+    private final List<Phase> phases = new ArrayList<>();    // 按开始顺序记录的阶段
+
+    /**
+     * 开始一个新阶段
+     * @param name 阶段名称
+     * @return 阶段句柄
+     */
+    public synchronized Phase begin(String name) {
+        Phase phase = new Phase(name);
+        phases.add(phase);
+        return phase;
+    }
+
+    /**
+     * 获取所有阶段（按开始顺序）
+     * @return 阶段列表
+     */
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    /**
+     * 以表格形式输出各阶段指标
+     */
+    public void print() {
+        System.out.println("\n=== 阶段耗时 ===");
+        System.out.println(String.format("  %-16s %10s %12s %8s", "phase", "ms", "bytes", "files"));
+        for (Phase phase : getPhases()) {
+            System.out.println(String.format("  %-16s %10.1f %12d %8d",
+                phase.getName(), phase.getMillis(), phase.getBytes(), phase.getFiles()));
+        }
+        System.out.println(String.format("  %-16s %10.1f", "total", totalMillis()));
+    }
+
+    /**
+     * 生成机器可读的 JSON 指标
+     * @return JSON 对象
+     */
+    public JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("totalMs", round(totalMillis()));
+        JsonArray array = new JsonArray();
+        for (Phase phase : getPhases()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("phase", phase.getName());
+            item.addProperty("ms", round(phase.getMillis()));
+            item.addProperty("bytes", phase.getBytes());
+            item.addProperty("files", phase.getFiles());
+            array.add(item);
+        }
+        root.add("phases", array);
+        return root;
+    }
+
+    private double totalMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;              // 保留两位小数
+    }
+}
@@ -0,0 +1,274 @@
+package com.github.speckit.utils;
+
+// 导入 ANSI 控制台颜色支持库
+import org.fusesource.jansi.Ansi;
+
+// 导入 Java IO 相关类
+import java.io.PrintStream;
+// 导入集合类
+import java.util.ArrayList;
+import java.util.List;
+// 导入并发工具类
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进度显示：终端中由后台线程每 100 毫秒重绘一次所有进行中的任务（每个任务一行，含速度和剩余时间），
+ * 工作线程更新进度只写原子计数，不做任何输出；输出不是终端时退化为逐行输出，
+ * 任务完成时输出一行，长时间运行的任务每 10 秒输出一次进度
+ * Progress display: live multi-line rendering on a terminal, plain throttled lines otherwise
+ */
+public final class Progress {
+
+    /**
+     * 进度计量单位
+     */
+    public enum Unit { NONE, BYTES, FILES }
+
+    private static final long RENDER_INTERVAL_MILLIS = 100;    // 终端重绘间隔
+    private static final long PLAIN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);  // 非终端输出间隔
+    private static final String[] BYTE_UNITS = {" B", " KB", " MB", " GB"};  // 字节数单位
+
+    private final boolean live;                                 // 是否在终端中实时重绘
+    private final List<Task> tasks = new ArrayList<>();         // 进行中的任务，按开始顺序
+    private final StringBuilder buffer = new StringBuilder(256);  // 重绘时复用的缓冲区
+    private int drawnLines;                                     // 上次重绘占用的行数
+    private ScheduledExecutorService renderer;                  // 重绘线程，没有任务时停止
+
+    /**
+     * @param live 是否实时重绘；为 false 时只输出完整的行
+     */
+    public Progress(boolean live) {
+        this.live = live;
+    }
+
+    /**
+     * 单个任务的进度，可以在任意线程更新
+     */
+    public final class Task implements AutoCloseable {
+        private final String label;                             // 任务名称
+        private final Unit unit;                                // 计量单位
+        private final long startNanos = System.nanoTime();      // 开始时间
+        private final AtomicLong done = new AtomicLong();       // 已完成数量
+        private volatile long total = -1;                       // 总量，未知时为 -1
+        private long lastPlainNanos = startNanos;               // 非终端模式上次输出时间
+        private boolean finished;                               // 是否已结束
+
+        private Task(String label, Unit unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        /**
+         * 设置当前进度，签名与下载进度回调一致，可直接作为方法引用传入
+         * @param done 已完成数量
+         * @param total 总量，未知时为 -1
+         */
+        public void update(long done, long total) {
+            this.done.set(done);
+            this.total = total;
+            if (!live) {
+                printPlainProgress();
+            }
+        }
+
+        /**
+         * 已完成数量加一，用于逐个统计解压的文件
+         */
+        public void increment() {
+            done.incrementAndGet();
+            if (!live) {
+                printPlainProgress();
+            }
+        }
+
+        /**
+         * 任务成功结束，输出"名称... 消息"
+         * @param message 完成消息
+         */
+        public void done(String message) {
+            finish(Ansi.ansi().fgCyan().a(label + "... ").fgGreen().a(message).reset().toString());
+        }
+
+        /**
+         * 任务失败结束，输出红色的失败消息
+         * @param message 失败消息
+         */
+        public void fail(String message) {
+            finish(Ansi.ansi().fgCyan().a(label + "... ").fgRed().a(message).reset().toString());
+        }
+
+        /**
+         * 未调用 done 或 fail 就结束时（如抛出异常）只移除进度行，不输出
+         */
+        @Override
+        public void close() {
+            finish(null);
+        }
+
+        private void finish(String line) {
+            synchronized (Progress.this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                tasks.remove(this);
+                println(System.out, line);
+                if (tasks.isEmpty() && renderer != null) {
+                    renderer.shutdownNow();
+                    renderer = null;
+                }
+            }
+        }
+
+        private void printPlainProgress() {
+            long now = System.nanoTime();
+            if (now - lastPlainNanos < PLAIN_INTERVAL_NANOS) {
+                return;
+            }
+            synchronized (Progress.this) {
+                if (finished || now - lastPlainNanos < PLAIN_INTERVAL_NANOS) {
+                    return;
+                }
+                lastPlainNanos = now;
+                buffer.setLength(0);
+                appendStatus(buffer, this, now);
+                System.out.println(buffer);
+            }
+        }
+    }
+
+    /**
+     * 开始一个任务；终端模式下第一个任务会启动重绘线程
+     * @param label 任务名称
+     * @param unit 计量单位
+     * @return 任务
+     */
+    public synchronized Task start(String label, Unit unit) {
+        Task task = new Task(label, unit);
+        tasks.add(task);
+        if (live && renderer == null) {
+            renderer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "specify-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            renderer.scheduleAtFixedRate(this::render, 0, RENDER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return task;
+    }
+
+    /**
+     * 在进度行上方输出一行，不打乱正在重绘的进度
+     * @param stream 输出流（标准输出或标准错误）
+     * @param line 要输出的内容，为 null 时只刷新进度行
+     */
+    public synchronized void println(PrintStream stream, Object line) {
+        clear();
+        if (line != null) {
+            stream.println(line);
+            stream.flush();
+        }
+        if (live && !tasks.isEmpty()) {
+            draw();
+        }
+    }
+
+    /**
+     * 是否有进行中的任务
+     * @return 有任务时返回 true
+     */
+    public synchronized boolean isActive() {
+        return !tasks.isEmpty();
+    }
+
+    private synchronized void render() {
+        clear();
+        draw();
+    }
+
+    // 清除上次绘制的进度行，光标回到第一行行首
+    private void clear() {
+        if (drawnLines > 0) {
+            System.out.print("\033[" + drawnLines + "A\r\033[J");
+            drawnLines = 0;
+        }
+    }
+
+    private void draw() {
+        long now = System.nanoTime();
+        buffer.setLength(0);
+        for (Task task : tasks) {
+            appendStatus(buffer, task, now);
+            buffer.append('\n');
+        }
+        System.out.print(buffer);
+        System.out.flush();
+        drawnLines = tasks.size();
+    }
+
+    /**
+     * 拼接一行状态："名称... 12.5 MB / 40.0 MB  3.1 MB/s  剩余 9s"
+     */
+    private static void appendStatus(StringBuilder out, Task task, long now) {
+        long done = task.done.get();
+        long total = task.total;
+        out.append(task.label).append("...");
+        if (task.unit == Unit.NONE) {
+            return;
+        }
+        out.append(' ');
+        appendAmount(out, task.unit, done);
+        if (total > 0) {
+            out.append(" / ");
+            appendAmount(out, task.unit, total);
+        }
+        if (task.unit == Unit.FILES) {
+            out.append(" 个文件");
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - task.startNanos);
+        if (elapsedMillis < 500 || done <= 0) {
+            return;                                             // 刚开始时速度还不准确
+        }
+        long perSecond = done * 1000 / elapsedMillis;
+        if (task.unit == Unit.BYTES) {
+            out.append("  ");
+            appendAmount(out, Unit.BYTES, perSecond);
+            out.append("/s");
+        }
+        if (total > done && perSecond > 0) {
+            out.append("  剩余 ");
+            appendDuration(out, (total - done) / perSecond);
+        }
+    }
+
+    // 用整数运算格式化数量，避免 String.format 的分配
+    private static void appendAmount(StringBuilder out, Unit unit, long value) {
+        if (unit != Unit.BYTES) {
+            out.append(value);
+            return;
+        }
+        int index = 0;
+        long scaled = value * 10;                               // 保留一位小数
+        while (scaled >= 10240 && index < BYTE_UNITS.length - 1) {
+            scaled /= 1024;
+            index++;
+        }
+        out.append(scaled / 10);
+        if (index > 0) {
+            out.append('.').append(scaled % 10);
+        }
+        out.append(BYTE_UNITS[index]);
+    }
+
+    private static void appendDuration(StringBuilder out, long seconds) {
+        if (seconds >= 60) {
+            out.append(seconds / 60).append("m");
+            seconds %= 60;
+        }
+        out.append(seconds).append('s');
+    }
+}
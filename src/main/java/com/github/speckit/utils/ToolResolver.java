@@ -0,0 +1,165 @@
+package com.github.speckit.utils;
+
+// 导入 Java IO 和 NIO 相关类
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+// 导入集合类
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 基于 PATH 扫描的工具解析器，一次性建立可执行文件索引，避免为每个工具启动 --version 进程
+ * PATH-scanning tool resolver that builds an executable index once instead of forking per tool
+ */
+public final class ToolResolver {
+
+    // 进程级共享实例，首次使用时构建
+    private static volatile ToolResolver defaultResolver;
+
+    private final boolean windows;                        // 是否为 Windows 平台
+    private final List<String> executableExtensions;      // Windows 下的可执行扩展名（PATHEXT）
+    private final Map<String, List<Path>> index;          // 工具名 -> 按 PATH 顺序排列的候选路径
+    private final Map<String, Optional<Path>> resolved = new HashMap<>();  // 已解析结果缓存
+
+    /**
+     * 获取基于当前进程 PATH 的共享解析器
+     * @return 共享解析器实例
+     */
+    public static ToolResolver getDefault() {
+        ToolResolver resolver = defaultResolver;
+        if (resolver == null) {
+            synchronized (ToolResolver.class) {
+                resolver = defaultResolver;
+                if (resolver == null) {
+                    resolver = new ToolResolver(System.getenv("PATH"), System.getenv("PATHEXT"),
+                        System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win"));
+                    defaultResolver = resolver;
+                }
+            }
+        }
+        return resolver;
+    }
+
+    /**
+     * 构造函数，扫描给定的 PATH 并建立索引
+     * @param pathVariable PATH 环境变量值
+     * @param pathExt PATHEXT 环境变量值（仅 Windows 使用，可为空）
+     * @param windows 是否按 Windows 规则解析
+     */
+    public ToolResolver(String pathVariable, String pathExt, boolean windows) {
+        this.windows = windows;
+        this.executableExtensions = new ArrayList<>();
+        if (windows) {
+            String exts = pathExt != null && !pathExt.isBlank() ? pathExt : ".COM;.EXE;.BAT;.CMD";
+            for (String ext : exts.split(";")) {
+                if (!ext.isBlank()) {
+                    executableExtensions.add(ext.toLowerCase(Locale.ROOT));  // 统一为小写
+                }
+            }
+        }
+        this.index = buildIndex(pathVariable);
+    }
+
+    /**
+     * 解析工具的可执行文件路径
+     * @param toolName 工具名称
+     * @return 可执行文件路径，不存在时为空
+     */
+    public synchronized Optional<Path> resolve(String toolName) {
+        return resolved.computeIfAbsent(key(toolName), this::lookup);
+    }
+
+    /**
+     * 判断工具是否存在于 PATH 中
+     * @param toolName 工具名称
+     * @return 是否可用
+     */
+    public boolean isAvailable(String toolName) {
+        return resolve(toolName).isPresent();
+    }
+
+    /**
+     * 按 PATH 顺序返回第一个真正可执行的候选文件
+     */
+    private Optional<Path> lookup(String key) {
+        List<Path> candidates = index.get(key);
+        if (candidates == null) {
+            return Optional.empty();                      // 索引中不存在
+        }
+        for (Path candidate : candidates) {
+            // 仅在命中时检查可执行位，避免对 PATH 中每个文件执行 stat
+            if (Files.isRegularFile(candidate) && (windows || Files.isExecutable(candidate))) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 遍历 PATH 中的每个目录，按文件名建立索引
+     */
+    private Map<String, List<Path>> buildIndex(String pathVariable) {
+        Map<String, List<Path>> result = new HashMap<>();
+        if (pathVariable == null || pathVariable.isBlank()) {
+            return result;
+        }
+
+        for (String entry : pathVariable.split(File.pathSeparator)) {
+            if (entry.isBlank()) {
+                continue;                                 // 跳过空的 PATH 条目
+            }
+            Path dir;
+            try {
+                dir = Paths.get(entry);
+            } catch (RuntimeException e) {
+                continue;                                 // 跳过非法路径
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    String key = indexKey(file.getFileName().toString());
+                    if (key != null) {
+                        result.computeIfAbsent(key, k -> new ArrayList<>(1)).add(file);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // 目录不存在或不可读，忽略
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 计算文件在索引中的键；Windows 下只收录 PATHEXT 扩展名并去掉扩展名
+     */
+    private String indexKey(String fileName) {
+        if (!windows) {
+            return fileName;
+        }
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String ext : executableExtensions) {
+            if (lower.endsWith(ext)) {
+                return lower.substring(0, lower.length() - ext.length());
+            }
+        }
+        return null;                                      // 非可执行扩展名
+    }
+
+    /**
+     * 规范化查询键
+     */
+    private String key(String toolName) {
+        if (!windows) {
+            return toolName;
+        }
+        String stripped = indexKey(toolName);             // 允许传入 git.exe 形式
+        return stripped != null ? stripped : toolName.toLowerCase(Locale.ROOT);
+    }
+}
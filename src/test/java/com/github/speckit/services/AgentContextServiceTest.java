@@ -0,0 +1,214 @@
+package com.github.speckit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs scripts/bash/update-agent-context.sh and the Java port on the same CLAUDE.md and compares the results
+ */
+class AgentContextServiceTest {
+    
+    private static final Path SCRIPTS = Paths.get("scripts", "bash");
+    private static final String FEATURE = "002-orders";
+    private static final String PROJECT = "demo";
+    private static final String CHANGE = "- " + FEATURE + ": Added TypeScript 5 + Express";
+    
+    private static final String TEMPLATE = """
+        # [PROJECT NAME] Development Guidelines
+        
+        Auto-generated from all feature plans. Last updated: [DATE]
+        
+        ## Active Technologies
+        [EXTRACTED FROM ALL PLAN.MD FILES]
+        
+        ## Project Structure
+        ```
+        [ACTUAL STRUCTURE FROM PLANS]
+        ```
+        
+        ## Commands
+        [ONLY COMMANDS FOR ACTIVE TECHNOLOGIES]
+        
+        ## Code Style
+        [LANGUAGE-SPECIFIC, ONLY FOR LANGUAGES IN USE]
+        
+        ## Recent Changes
+        [LAST 3 FEATURES AND WHAT THEY ADDED]
+        """;
+    
+    private static final String PLAN = """
+        # Implementation Plan: Orders
+        
+        ## Technical Context
+        
+        **Language/Version**: TypeScript 5
+        **Primary Dependencies**: Express
+        **Storage**: PostgreSQL
+        **Testing**: vitest
+        **Project Type**: web
+        """;
+    
+    private static final String EXISTING = """
+        # demo Development Guidelines
+        
+        **Last updated**: 2020-01-01
+        
+        ## Active Technologies
+        - Java 17 + picocli (001-users)
+        
+        ## Commands
+        - mvn test
+        
+        ## Recent Changes
+        - 001-users: Added Java 17 + picocli
+        """;
+    
+    private static final String NO_TECH = """
+        # demo Development Guidelines
+        
+        **Last updated**: 2020-01-01
+        
+        ## Recent Changes
+        - 001-users: Added Java 17 + picocli
+        """;
+    
+    private static final String NO_CHANGES = """
+        # demo Development Guidelines
+        
+        **Last updated**: 2020-01-01
+        
+        ## Active Technologies
+        - Java 17 + picocli (001-users)
+        """;
+    
+    private static final String MANY_CHANGES = """
+        # demo Development Guidelines
+        
+        **Last updated**: 2020-01-01
+        
+        ## Active Technologies
+        - Java 17 + picocli (001-users)
+        
+        ## Commands
+        - mvn test
+        
+        ## Recent Changes
+        - 001-users: Added Java 17 + picocli
+        - 000-c: Added C
+        - 000-b: Added B
+        - 000-a: Added A
+        
+        ## Notes
+        - outside Recent Changes
+        """;
+    
+    @TempDir
+    Path tempDir;
+    
+    private final AgentContextService service = new AgentContextService();
+    private String date;
+    
+    @BeforeEach
+    void setUp() {
+        assumeTrue(bashAvailable(), "bash is not installed");
+        date = LocalDate.now().toString();
+    }
+    
+    /**
+     * Each case names how the port's output differs from the script's, if at all: a rerun does
+     * not repeat the Recent Changes entry, and CRLF files keep their line endings (the script
+     * matches no heading on CRLF lines, so it gets the LF file).
+     */
+    static Stream<Arguments> cases() {
+        UnaryOperator<String> same = UnaryOperator.identity();
+        return Stream.of(
+            Arguments.of("fresh template", null, 1, false, same),
+            Arguments.of("rerun with the same feature", null, 2, false,
+                (UnaryOperator<String>) script -> script.replace(CHANGE + "\n" + CHANGE + "\n", CHANGE + "\n")),
+            Arguments.of("existing file", EXISTING, 1, false, same),
+            Arguments.of("missing Active Technologies", NO_TECH, 1, false, same),
+            Arguments.of("missing Recent Changes", NO_CHANGES, 1, false, same),
+            Arguments.of("keeps two older changes", MANY_CHANGES, 1, false, same),
+            Arguments.of("CRLF input", MANY_CHANGES, 1, true,
+                (UnaryOperator<String>) script -> script.replace("\n", "\r\n")));
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void portMatchesScript(String name, String existing, int runs, boolean crlf, UnaryOperator<String> difference)
+            throws Exception {
+        Path scriptRepo = createRepo("script");
+        Path portRepo = createRepo("port");
+        if (existing != null) {
+            Files.writeString(scriptRepo.resolve("CLAUDE.md"), existing);
+            Files.writeString(portRepo.resolve("CLAUDE.md"), crlf ? existing.replace("\n", "\r\n") : existing);
+        }
+        
+        AgentContextService.PlanData plan = service.parsePlan(portRepo.resolve("specs/" + FEATURE + "/plan.md"));
+        for (int i = 0; i < runs; i++) {
+            runScript(scriptRepo);
+            service.update(portRepo.resolve("CLAUDE.md"), plan, FEATURE, PROJECT, date,
+                portRepo.resolve(".specify/templates/agent-file-template.md"));
+        }
+        
+        String script = Files.readString(scriptRepo.resolve("CLAUDE.md"));
+        assertTrue(script.contains(CHANGE), () -> "script did not add the change entry:\n" + script);
+        assertEquals(difference.apply(script), Files.readString(portRepo.resolve("CLAUDE.md")));
+    }
+    
+    /**
+     * Lays out a repository named after the project, with the scripts, template and the feature's plan
+     */
+    private Path createRepo(String side) throws IOException {
+        Path repo = Files.createDirectories(tempDir.resolve(side).resolve(PROJECT));
+        Path scripts = Files.createDirectories(repo.resolve(".specify/scripts/bash"));
+        for (String script : new String[] {"common.sh", "update-agent-context.sh"}) {
+            Files.copy(SCRIPTS.resolve(script), scripts.resolve(script));
+        }
+        Path templates = Files.createDirectories(repo.resolve(".specify/templates"));
+        Files.writeString(templates.resolve("agent-file-template.md"), TEMPLATE);
+        Path feature = Files.createDirectories(repo.resolve("specs").resolve(FEATURE));
+        Files.writeString(feature.resolve("plan.md"), PLAN);
+        return repo;
+    }
+    
+    private void runScript(Path repo) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder("bash", ".specify/scripts/bash/update-agent-context.sh", "claude")
+            .directory(repo.toFile())
+            .redirectErrorStream(true);
+        builder.environment().put("SPECIFY_FEATURE", FEATURE);
+        // Keeps git from finding a repository above the temp directory
+        builder.environment().put("GIT_CEILING_DIRECTORIES", tempDir.toAbsolutePath().toString());
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        assertTrue(exitCode == 0, () -> "update-agent-context.sh exited with " + exitCode + ":\n" + output);
+    }
+    
+    private static boolean bashAvailable() {
+        try {
+            return new ProcessBuilder("bash", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
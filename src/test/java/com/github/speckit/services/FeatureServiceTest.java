@@ -0,0 +1,158 @@
+package com.github.speckit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks feature number allocation against the refs git itself reports, and that the cached
+ * highest number is dropped when a ref store or specs/ changes
+ */
+class FeatureServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final GitService gitService = new GitService();
+    private final FeatureService featureService = new FeatureService(gitService);
+    private Path repo;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(gitAvailable(), "git is not installed");
+        
+        repo = Files.createDirectories(tempDir.resolve("repo"));
+        Files.writeString(repo.resolve("README.md"), "# Project\n");
+        git("init", "-q");
+        git("add", ".");
+        git("commit", "-q", "-m", "init");
+        Files.createDirectories(repo.resolve("specs"));
+    }
+    
+    @Test
+    void highestNumberMatchesGit() throws Exception {
+        git("branch", "002-login");
+        git("branch", "010-export");
+        git("update-ref", "refs/remotes/origin/012-remote-only", "HEAD");
+        git("pack-refs", "--all");
+        git("branch", "004-loose");
+        git("branch", "feature/099-not-a-prefix");
+        Files.createDirectories(repo.resolve("specs/011-spec-only"));
+        
+        int expected = 0;
+        for (String ref : lines(git("for-each-ref", "--format=%(refname:lstrip=2)", "refs/heads"))) {
+            expected = Math.max(expected, FeatureService.numberOf(ref));
+        }
+        for (String ref : lines(git("for-each-ref", "--format=%(refname:lstrip=3)", "refs/remotes"))) {
+            expected = Math.max(expected, FeatureService.numberOf(ref));
+        }
+        assertEquals(12, expected);
+        assertEquals(expected, featureService.highestNumber(repo, repo));
+        
+        // The same number comes back from the index once nothing changed
+        backdateStores(10_000);
+        assertEquals(expected, featureService.highestNumber(repo, repo));
+        assertEquals(expected, featureService.highestNumber(repo, repo));
+    }
+    
+    @Test
+    void newBranchOrSpecInvalidatesTheIndex() throws Exception {
+        git("branch", "003-first");
+        backdateStores(10_000);
+        assertEquals(3, featureService.highestNumber(repo, repo));
+        assertTrue(indexStamps().stream().noneMatch(stamp -> stamp.startsWith("-1\t")));
+        
+        git("branch", "007-second");
+        assertEquals(7, featureService.highestNumber(repo, repo));
+        
+        Files.createDirectories(repo.resolve("specs/008-spec"));
+        assertEquals(8, featureService.highestNumber(repo, repo));
+        
+        git("update-ref", "refs/remotes/origin/009-remote", "HEAD");
+        assertEquals(9, featureService.highestNumber(repo, repo));
+    }
+    
+    @Test
+    void stampsFromTheCurrentTickAreNotTrusted() throws Exception {
+        Path heads = repo.resolve(".git/refs/heads");
+        FileTime before = Files.getLastModifiedTime(heads);
+        assertEquals(0, featureService.highestNumber(repo, repo));
+        assertTrue(indexStamps().stream()
+            .anyMatch(stamp -> stamp.startsWith("-1\t") && stamp.endsWith(heads.toString())));
+        
+        // On a file system with coarse timestamps the new branch leaves refs/heads' mtime as it was
+        git("branch", "005-same-tick");
+        Files.setLastModifiedTime(heads, before);
+        assertEquals(5, featureService.highestNumber(repo, repo));
+    }
+    
+    /**
+     * Moves the ref stores and specs/ into the past, so their stamps are old enough to be cached
+     */
+    private void backdateStores(long millis) throws IOException {
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - millis);
+        for (Path store : gitService.refStores(repo)) {
+            if (Files.exists(store)) {
+                Files.setLastModifiedTime(store, past);
+            }
+        }
+        Files.setLastModifiedTime(repo.resolve("specs"), past);
+    }
+    
+    /**
+     * The stamp lines of the feature index: everything after the format and number lines
+     */
+    private List<String> indexStamps() throws IOException {
+        List<String> lines = Files.readAllLines(repo.resolve(".git/specify-feature-index"));
+        return lines.subList(2, lines.size());
+    }
+    
+    /**
+     * Runs git in the repository with a fixed identity and returns its combined output, failing
+     * on a non-zero exit
+     */
+    private String git(String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(repo.toFile())
+            .redirectErrorStream(true);
+        builder.environment().put("GIT_CONFIG_NOSYSTEM", "1");
+        builder.environment().put("GIT_AUTHOR_NAME", "Spec Kit");
+        builder.environment().put("GIT_AUTHOR_EMAIL", "spec-kit@example.com");
+        builder.environment().put("GIT_COMMITTER_NAME", "Spec Kit");
+        builder.environment().put("GIT_COMMITTER_EMAIL", "spec-kit@example.com");
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        assertTrue(exitCode == 0, () -> String.join(" ", command) + " exited with " + exitCode + ":\n" + output);
+        return output;
+    }
+    
+    private static List<String> lines(String output) {
+        return output.isBlank() ? List.of() : List.of(output.trim().split("\n"));
+    }
+    
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.speckit.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the in-process repository writer against the git command line
+ */
+class GitServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final GitService gitService = new GitService();
+    private String originalHome;
+    private Path home;
+    private Path project;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(gitAvailable(), "git is not installed");
+        
+        // createInitialCommit reads the author from ~/.gitconfig
+        originalHome = System.getProperty("user.home");
+        home = Files.createDirectories(tempDir.resolve("home"));
+        Files.writeString(home.resolve(".gitconfig"), "[user]\n\tname = Spec Kit\n\temail = spec-kit@example.com\n");
+        System.setProperty("user.home", home.toString());
+        
+        project = Files.createDirectories(tempDir.resolve("project"));
+    }
+    
+    @AfterEach
+    void restoreHome() {
+        if (originalHome != null) {
+            System.setProperty("user.home", originalHome);
+        }
+    }
+    
+    @Test
+    void initialCommitPassesFsckAndLeavesCleanStatus() throws Exception {
+        write("README.md", "# Project\n");
+        write(".specify/memory/constitution.md", "principles\n");
+        write(".specify/templates/spec-template.md", "spec\n");
+        Path script = write(".specify/scripts/bash/common.sh", "#!/usr/bin/env bash\n");
+        if (Files.getFileStore(script).supportsFileAttributeView("posix")) {
+            Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+        
+        gitService.initRepo(project, true);
+        String commitId = gitService.createInitialCommit(project);
+        assertNotNull(commitId);
+        
+        assertEquals(commitId, git("rev-parse", "HEAD").trim());
+        assertEquals("", git("fsck", "--strict", "--no-progress"));
+        assertEquals("", git("status", "--porcelain"));
+    }
+    
+    @Test
+    void treeEntriesUseGitOrder() throws Exception {
+        // Git sorts a directory as if its name ended with '/', which falls between '.' and '0'
+        write("foo/bar.md", "in directory\n");
+        write("foo.txt", "text\n");
+        write("foo-bar", "dash\n");
+        write("foo0", "digit\n");
+        
+        gitService.initRepo(project, true);
+        assertNotNull(gitService.createInitialCommit(project));
+        
+        assertEquals(List.of("foo-bar", "foo.txt", "foo", "foo0"), lines(git("ls-tree", "--name-only", "HEAD")));
+        assertEquals(List.of("foo-bar", "foo.txt", "foo/bar.md", "foo0"), lines(git("ls-files")));
+        assertEquals("", git("fsck", "--strict", "--no-progress"));
+        assertEquals("", git("status", "--porcelain"));
+    }
+    
+    @Test
+    void projectInsideAnotherRepositoryIsNotARepository() throws Exception {
+        gitService.initRepo(project, true);
+        Path nested = Files.createDirectories(project.resolve("nested"));
+        
+        // init must still create the nested project's own repository
+        assertFalse(gitService.isGitRepo(nested));
+        assertTrue(gitService.isGitRepo(project));
+        assertEquals(project.toAbsolutePath().normalize(), gitService.findWorkTree(nested));
+    }
+    
+    @Test
+    void createBranchWritesTheReflogOfCheckoutB() throws Exception {
+        write("README.md", "# Project\n");
+        gitService.initRepo(project, true);
+        assertNotNull(gitService.createInitialCommit(project));
+        gitService.createBranch(project, "001-feature");
+        
+        Path expected = Files.createDirectories(tempDir.resolve("expected"));
+        Files.writeString(expected.resolve("README.md"), "# Project\n");
+        git(expected, "init", "-q");
+        git(expected, "add", ".");
+        git(expected, "commit", "-q", "-m", "init");
+        git(expected, "checkout", "-q", "-b", "001-feature");
+        
+        // The in-process initial commit writes no reflog, so only the newest entries are compared
+        String format = "--format=%gs|%gn|%ge";
+        for (String ref : new String[] {"HEAD", "refs/heads/001-feature"}) {
+            assertEquals(git(expected, "reflog", "show", "-1", format, ref), git("reflog", "show", "-1", format, ref));
+        }
+        assertEquals("001-feature", git("rev-parse", "--abbrev-ref", "HEAD").trim());
+        assertEquals("", git("fsck", "--strict", "--no-progress"));
+    }
+    
+    private Path write(String relative, String content) throws IOException {
+        Path file = project.resolve(relative);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+    
+    private String git(String... args) throws IOException, InterruptedException {
+        return git(project, args);
+    }
+    
+    /**
+     * Runs git in a directory with the test's home and returns its combined output, failing on a
+     * non-zero exit
+     */
+    private String git(Path dir, String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(dir.toFile())
+            .redirectErrorStream(true);
+        builder.environment().put("HOME", home.toString());
+        builder.environment().put("GIT_CONFIG_NOSYSTEM", "1");
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        assertTrue(exitCode == 0, () -> String.join(" ", command) + " exited with " + exitCode + ":\n" + output);
+        return output;
+    }
+    
+    private static List<String> lines(String output) {
+        return Arrays.asList(output.trim().split("\n"));
+    }
+    
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
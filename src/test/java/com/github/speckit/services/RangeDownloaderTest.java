@@ -0,0 +1,214 @@
+package com.github.speckit.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs RangeDownloader against a local HTTP server that can cut responses short and change the asset
+ */
+class RangeDownloaderTest {
+    
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+    
+    @TempDir
+    Path tempDir;
+    
+    private HttpServer server;
+    private final OkHttpClient client = new OkHttpClient();
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger served = new AtomicInteger();
+    
+    // What the server currently serves; tests change these between requests
+    private volatile byte[] content;
+    private volatile String etag;
+    // Requests with this index (0-based) send only half of their body, then drop the connection
+    private volatile int truncate = -1;
+    // Once this many requests were served, the asset is replaced with nextContent/nextEtag
+    private volatile int changeAfter = Integer.MAX_VALUE;
+    private volatile byte[] nextContent;
+    private volatile String nextEtag;
+    
+    /**
+     * Range and If-Range headers of one request, and the status it got
+     */
+    private static final class Request {
+        final String range;
+        final String ifRange;
+        final int status;
+        
+        Request(String range, String ifRange, int status) {
+            this.range = range;
+            this.ifRange = ifRange;
+            this.status = status;
+        }
+    }
+    
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/asset.zip", this::handle);
+        server.start();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+    
+    @Test
+    void interruptedDownloadResumesWithRangeAndIfRange() throws Exception {
+        content = randomBytes(10_000, 1);
+        etag = "\"v1\"";
+        truncate = 0;
+        
+        Path target = tempDir.resolve("asset.zip");
+        streaming().download(url(), target, null);
+        
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(2, requests.size());
+        assertEquals("bytes=5000-", requests.get(1).range);
+        assertEquals("\"v1\"", requests.get(1).ifRange);
+        assertEquals(206, requests.get(1).status);
+        assertNoProgressLeft(target);
+    }
+    
+    @Test
+    void changedValidatorRestartsFromZero() throws Exception {
+        content = randomBytes(10_000, 1);
+        etag = "\"v1\"";
+        truncate = 0;
+        changeAfter = 1;
+        nextContent = randomBytes(12_000, 2);
+        nextEtag = "\"v2\"";
+        
+        Path target = tempDir.resolve("asset.zip");
+        streaming().download(url(), target, null);
+        
+        // The server answers the stale If-Range with the whole new asset instead of a spliced range
+        assertArrayEquals(nextContent, Files.readAllBytes(target));
+        assertEquals("\"v1\"", requests.get(1).ifRange);
+        assertEquals(200, requests.get(1).status);
+        assertNoProgressLeft(target);
+    }
+    
+    @Test
+    void missingValidatorRestartsFromZero() throws Exception {
+        content = randomBytes(10_000, 1);
+        etag = null;
+        truncate = 0;
+        
+        Path target = tempDir.resolve("asset.zip");
+        streaming().download(url(), target, null);
+        
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(2, requests.size());
+        assertEquals("bytes=0-", requests.get(1).range);
+        assertNull(requests.get(1).ifRange);
+    }
+    
+    @Test
+    void largeAssetIsFetchedInChunksAndReassembled() throws Exception {
+        content = randomBytes(100_003, 3);
+        etag = "\"v1\"";
+        // The first chunk request is cut short and resumed on the next attempt
+        truncate = 1;
+        
+        Path target = tempDir.resolve("asset.zip");
+        List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        new RangeDownloader(client, 1024, 4).download(url(), target, (read, total) -> progress.add(read));
+        
+        assertArrayEquals(content, Files.readAllBytes(target));
+        long chunkRequests = requests.stream().filter(r -> r.range.matches("bytes=\\d+-\\d+")).count();
+        assertTrue(chunkRequests >= 4, () -> "expected ranged chunk requests, got " + chunkRequests);
+        assertTrue(requests.stream().skip(1).allMatch(r -> "\"v1\"".equals(r.ifRange)));
+        assertEquals(content.length, (long) progress.get(progress.size() - 1));
+        assertNoProgressLeft(target);
+    }
+    
+    private RangeDownloader streaming() {
+        return new RangeDownloader(client, Long.MAX_VALUE, 1);
+    }
+    
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/asset.zip";
+    }
+    
+    private static void assertNoProgressLeft(Path target) {
+        assertFalse(Files.exists(target.resolveSibling("asset.zip.download")));
+        assertFalse(Files.exists(target.resolveSibling("asset.zip.chunks")));
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        int index = served.getAndIncrement();
+        if (index == changeAfter) {
+            content = nextContent;
+            etag = nextEtag;
+        }
+        byte[] body = content;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        
+        long start = 0;
+        long end = body.length - 1;
+        boolean partial = false;
+        Matcher matcher = range != null ? RANGE.matcher(range) : null;
+        if (matcher != null && matcher.matches() && (ifRange == null || ifRange.equals(etag))) {
+            start = Long.parseLong(matcher.group(1));
+            end = matcher.group(2).isEmpty() ? body.length - 1 : Long.parseLong(matcher.group(2));
+            partial = true;
+        }
+        int status = partial ? 206 : 200;
+        requests.add(new Request(range, ifRange, status));
+        
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        if (partial) {
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + body.length);
+        }
+        int length = (int) (end - start + 1);
+        exchange.sendResponseHeaders(status, length);
+        OutputStream out = exchange.getResponseBody();
+        if (index == truncate) {
+            out.write(body, (int) start, length / 2);
+            out.flush();
+            // An exception escaping the handler makes the server drop the connection mid-body
+            throw new IOException("truncated on purpose");
+        }
+        out.write(body, (int) start, length);
+        out.close();
+    }
+    
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
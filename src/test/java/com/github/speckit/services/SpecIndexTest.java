@@ -0,0 +1,217 @@
+package com.github.speckit.services;
+
+import com.github.speckit.commands.PrereqCommand;
+import com.github.speckit.utils.FileUtils;
+import com.github.speckit.utils.Invocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks when the spec index lists specs/ and scans feature directories again, and runs
+ * check-prerequisites.sh and the prereq command on the same duplicate prefixes
+ */
+class SpecIndexTest {
+    
+    private static final Path SCRIPTS = Paths.get("scripts", "bash");
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path repo;
+    private Path specs;
+    private Path gitDir;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        repo = Files.createDirectories(tempDir.resolve("repo"));
+        specs = Files.createDirectories(repo.resolve("specs"));
+        gitDir = Files.createDirectories(tempDir.resolve("git"));
+    }
+    
+    @Test
+    void specsChangeRelists() throws Exception {
+        feature("001-users", "spec.md");
+        settle(specs, specs.resolve("001-users"));
+        assertEquals(Set.of("001-users"), SpecIndex.load(repo, gitDir).features());
+        
+        // While specs/ keeps its stamp the listing is not repeated
+        FileTime settled = Files.getLastModifiedTime(specs);
+        Files.createDirectories(specs.resolve("002-unseen"));
+        Files.setLastModifiedTime(specs, settled);
+        assertEquals(Set.of("001-users"), SpecIndex.load(repo, gitDir).features());
+        FileUtils.deleteRecursively(specs.resolve("002-unseen"));
+        
+        feature("003-orders", "spec.md");
+        SpecIndex index = SpecIndex.load(repo, gitDir);
+        assertEquals(Set.of("001-users", "003-orders"), index.features());
+        assertEquals(3, index.highestNumber());
+        
+        FileUtils.deleteRecursively(specs.resolve("003-orders"));
+        assertEquals(Set.of("001-users"), SpecIndex.load(repo, gitDir).features());
+    }
+    
+    @Test
+    void featureOrContractsChangeRescansDocs() throws Exception {
+        Path dir = feature("001-users", "spec.md");
+        settle(specs, dir);
+        SpecIndex index = SpecIndex.load(repo, gitDir);
+        assertEquals(List.of("spec.md"), List.copyOf(index.docs("001-users")));
+        
+        Files.writeString(dir.resolve("plan.md"), "plan\n");
+        assertEquals(List.of("spec.md", "plan.md"), List.copyOf(index.docs("001-users")));
+        
+        // An empty contracts/ does not count
+        Path contracts = Files.createDirectories(dir.resolve("contracts"));
+        settle(dir, contracts);
+        assertEquals(List.of("spec.md", "plan.md"), List.copyOf(index.docs("001-users")));
+        
+        // A new contract changes only contracts/, not the feature directory
+        FileTime featureStamp = Files.getLastModifiedTime(dir);
+        Files.writeString(contracts.resolve("api.yaml"), "openapi: 3.0.0\n");
+        assertEquals(featureStamp, Files.getLastModifiedTime(dir));
+        assertEquals(List.of("spec.md", "plan.md", "contracts/"), List.copyOf(index.docs("001-users")));
+    }
+    
+    @Test
+    void stampsFromTheCurrentTickAreRescanned() throws Exception {
+        Path dir = feature("001-users", "spec.md");
+        FileTime specsStamp = Files.getLastModifiedTime(specs);
+        FileTime featureStamp = Files.getLastModifiedTime(dir);
+        SpecIndex index = SpecIndex.load(repo, gitDir);
+        assertEquals(List.of("spec.md"), List.copyOf(index.docs("001-users")));
+        
+        // Both stamps are within RACY_MILLIS of now, so the index records them as unknown
+        List<String> lines = Files.readAllLines(gitDir.resolve("specify-spec-index"));
+        assertEquals("-1", lines.get(2));
+        assertTrue(lines.get(3).startsWith("001-users\t-1\t"), lines.get(3));
+        
+        // On a file system with coarse timestamps these changes leave both stamps as they were
+        feature("002-orders", "spec.md");
+        Files.setLastModifiedTime(specs, specsStamp);
+        Files.writeString(dir.resolve("plan.md"), "plan\n");
+        Files.setLastModifiedTime(dir, featureStamp);
+        
+        index = SpecIndex.load(repo, gitDir);
+        assertEquals(Set.of("001-users", "002-orders"), index.features());
+        assertEquals(List.of("spec.md", "plan.md"), List.copyOf(index.docs("001-users")));
+    }
+    
+    /**
+     * A branch whose prefix several spec directories share gets the script's error and falls
+     * back to the branch name; unique and unknown prefixes are covered as well
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"004-new-branch", "007-other-branch", "009-no-spec"})
+    void prereqMatchesScriptForPrefixes(String feature) throws Exception {
+        assumeTrue(bashAvailable(), "bash is not installed");
+        feature("004-add-feature", "spec.md", "plan.md");
+        feature("004-fix-bug", "spec.md");
+        feature("007-real", "spec.md", "plan.md");
+        Path scripts = Files.createDirectories(repo.resolve(".specify/scripts/bash"));
+        for (String script : new String[] {"common.sh", "check-prerequisites.sh"}) {
+            Files.copy(SCRIPTS.resolve(script), scripts.resolve(script));
+        }
+        
+        String[] script = runScript(feature, "--json", "--paths-only");
+        String[] port = runPrereq(feature, "--json", "--paths-only");
+        assertEquals(script[0], port[0]);
+        assertEquals(script[1], port[1]);
+        if (feature.startsWith("004-")) {
+            assertTrue(port[1].contains("Multiple spec directories found with prefix '004': "
+                + "004-add-feature 004-fix-bug"), port[1]);
+        }
+    }
+    
+    private Path feature(String name, String... docs) throws IOException {
+        Path dir = Files.createDirectories(specs.resolve(name));
+        for (String doc : docs) {
+            Files.writeString(dir.resolve(doc), doc + "\n");
+        }
+        return dir;
+    }
+    
+    /**
+     * Moves stamps past RACY_MILLIS, so the index trusts them
+     */
+    private static void settle(Path... paths) throws IOException {
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 10 * SpecIndex.RACY_MILLIS);
+        for (Path path : paths) {
+            Files.setLastModifiedTime(path, past);
+        }
+    }
+    
+    /**
+     * Runs check-prerequisites.sh in the repository and returns its stdout and stderr
+     */
+    private String[] runScript(String feature, String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 2];
+        command[0] = "bash";
+        command[1] = ".specify/scripts/bash/check-prerequisites.sh";
+        System.arraycopy(args, 0, command, 2, args.length);
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(repo.toFile())
+            .redirectError(tempDir.resolve("script.err").toFile());
+        builder.environment().put("SPECIFY_FEATURE", feature);
+        // Keeps git from finding a repository above the temp directory
+        builder.environment().put("GIT_CEILING_DIRECTORIES", tempDir.toAbsolutePath().toString());
+        Process process = builder.start();
+        String out = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        String err = Files.readString(tempDir.resolve("script.err"));
+        assertTrue(exitCode == 0, () -> "check-prerequisites.sh exited with " + exitCode + ":\n" + err);
+        return new String[] {out, err};
+    }
+    
+    /**
+     * Runs the prereq command as a forwarded call from the repository and returns its stdout and stderr
+     */
+    private String[] runPrereq(String feature, String... args) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        int exitCode;
+        try {
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+            exitCode = Invocation.with(repo, Map.of(FeaturePaths.ENV_FEATURE, feature),
+                () -> new CommandLine(new PrereqCommand()).execute(args));
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+        assertEquals(0, exitCode, () -> err.toString(StandardCharsets.UTF_8));
+        return new String[] {out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8)};
+    }
+    
+    private static boolean bashAvailable() {
+        try {
+            return new ProcessBuilder("bash", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}